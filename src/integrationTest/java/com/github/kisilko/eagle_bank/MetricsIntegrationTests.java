@@ -0,0 +1,99 @@
+package com.github.kisilko.eagle_bank;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scrapes the Prometheus endpoint after a sign-up, a login and a few authenticated reads. The management settings
+ * of the main configuration are repeated here, as the test configuration replaces it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metrics", // separate from the database of the default test context
+        "management.endpoints.web.base-path=/healthcheck",
+        "management.endpoints.web.exposure.include=health,prometheus",
+        "management.metrics.distribution.percentiles-histogram.http.server.requests=true",
+        "management.metrics.distribution.percentiles-histogram.spring.data.repository.invocations=true",
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+public class MetricsIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+
+    public MetricsIntegrationTests(@Autowired MockMvcTester mockMvcTester) {
+        this.mockMvcTester = mockMvcTester;
+    }
+
+    @Test
+    void itPublishesTheApplicationMetrics() {
+        String userUri = signUp("metrics.customer@example.com");
+        String token = login("metrics.customer@example.com");
+        for (int i = 0; i < 2; i++) {
+            assertThat(mockMvcTester.get()
+                    .uri(userUri)
+                    .header("Authorization", "Bearer " + token)
+                    .exchange()).hasStatusOk();
+        }
+
+        MvcTestResult scrape = mockMvcTester.get().uri("/healthcheck/prometheus").exchange();
+
+        assertThat(scrape).hasStatusOk();
+        String metrics = contentOf(scrape);
+        assertThat(metrics).containsPattern("(?m)^http_server_requests_seconds_bucket\\{.*uri=\"/v1/auth/login\"");
+        assertThat(metrics).containsPattern("(?m)^security_jwt_verification_seconds_count\\{.*outcome=\"");
+        assertThat(metrics).containsPattern("(?m)^security_password_hashing_seconds_count\\{.*operation=\"encode\"");
+        assertThat(metrics).containsPattern("(?m)^security_password_hashing_seconds_count\\{.*operation=\"matches\"");
+        assertThat(metrics).containsPattern("(?m)^spring_data_repository_invocations_seconds_bucket\\{");
+        assertThat(metrics).containsPattern("(?m)^hibernate_sessions_open_total\\{");
+        assertThat(metrics).containsPattern("(?m)^hibernate_second_level_cache_requests_total\\{");
+        assertThat(metrics).containsPattern("(?m)^cache_gets_total\\{.*cache=\"jwt.verified-tokens\"");
+    }
+
+    private String signUp(String email) {
+        MvcTestResult signUp = mockMvcTester.post()
+                .uri("/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "name": "Metrics Customer",
+                            "email": "%s",
+                            "password": "pass123"
+                        }""".formatted(email))
+                .exchange();
+        assertThat(signUp).hasStatus(HttpStatus.CREATED);
+        return signUp.getResponse().getHeader("Location");
+    }
+
+    private String login(String email) {
+        MvcTestResult login = mockMvcTester.post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "pass123"
+                        }""".formatted(email))
+                .exchange();
+        assertThat(login).hasStatusOk();
+        return contentOf(login);
+    }
+
+    private static String contentOf(MvcTestResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.github.kisilko.eagle_bank;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the main request paths on virtual threads, as Tomcat would, and checks with the
+ * {@code jdk.VirtualThreadPinned} events of {@link VirtualThreadPinningMonitor} that no application code pins
+ * a carrier.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pinning", // separate from the database of the default test context
+        "spring.threads.virtual.enabled=true", // not set for the other tests
+        "diagnostics.virtual-thread-pinning.threshold-ms=0",
+})
+@AutoConfigureMockMvc
+public class VirtualThreadPinningIntegrationTests {
+
+    private static final String CONTROL_SITE = VirtualThreadPinningIntegrationTests.class.getName() + ".pinOnPurpose";
+
+    private final MockMvcTester mockMvcTester;
+    private final VirtualThreadPinningMonitor pinningMonitor;
+
+    public VirtualThreadPinningIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                                @Autowired VirtualThreadPinningMonitor pinningMonitor) {
+        this.mockMvcTester = mockMvcTester;
+        this.pinningMonitor = pinningMonitor;
+    }
+
+    @Test
+    void itDoesNotPinCarriersInApplicationCode() throws Exception {
+        List<MvcTestResult> results;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<List<MvcTestResult>>> customers = IntStream.range(0, 32)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> bank("pinning.customer" + i + "@example.com"), executor))
+                    .toList();
+            results = customers.stream().flatMap(customer -> customer.join().stream()).toList();
+        }
+        assertThat(results).allSatisfy(result -> assertThat(result.getResponse().getStatus()).isLessThan(400));
+
+        // events arrive in order, so once the control event is in, so are those of the requests
+        Thread.ofVirtual().start(VirtualThreadPinningIntegrationTests::pinOnPurpose).join();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (pinningMonitor.pinnedSites().keySet().stream().noneMatch(site -> site.startsWith(CONTROL_SITE))) {
+            assertThat(System.nanoTime()).as("the control pinning event to arrive").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+
+        assertThat(pinningMonitor.pinnedSites().keySet())
+                .filteredOn(site -> site.startsWith("com.github.kisilko.eagle_bank.") && !site.startsWith(CONTROL_SITE))
+                .isEmpty();
+    }
+
+    private static void pinOnPurpose() {
+        Object monitor = new Object();
+        synchronized (monitor) {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Signs up, logs in, opens an account, posts to it and reads it back.
+     */
+    private List<MvcTestResult> bank(String email) {
+        MvcTestResult signUp = mockMvcTester.post()
+                .uri("/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "name": "Pinning Customer",
+                            "email": "%s",
+                            "password": "pass123"
+                        }""".formatted(email))
+                .exchange();
+        assertThat(signUp).hasStatus(HttpStatus.CREATED);
+        String userUri = signUp.getResponse().getHeader("Location");
+        long userId = Long.parseLong(userUri.substring(userUri.lastIndexOf('/') + 1));
+
+        MvcTestResult login = mockMvcTester.post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "pass123"
+                        }""".formatted(email))
+                .exchange();
+        String token = contentOf(login);
+
+        MvcTestResult account = mockMvcTester.post()
+                .uri("/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        {
+                            "userId": %d,
+                            "accountType": "CURRENT",
+                            "currency": "USD"
+                        }""".formatted(userId))
+                .exchange();
+        String accountUri = account.getResponse().getHeader("Location");
+
+        MvcTestResult deposit = mockMvcTester.post()
+                .uri(accountUri + "/transactions")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        {
+                            "type": "DEPOSIT",
+                            "amount": 10.00
+                        }""")
+                .exchange();
+
+        MvcTestResult details = mockMvcTester.get()
+                .uri(accountUri)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+
+        return List.of(signUp, login, account, deposit, details);
+    }
+
+    private static String contentOf(MvcTestResult result) {
+        try {
+            return result.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.github.kisilko.eagle_bank.account;
+
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BankAccountBatchControllerIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+
+    public BankAccountBatchControllerIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                                      @Autowired UserService userService) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+    }
+
+    @Test
+    void itCreatesValidAccountsAndRejectsInvalidOnes() {
+        User existingUser = userService.createUser(new UserCreateRequest("Nina Patel", "nina.patel@example.com", "pass123"));
+        String batchRequest = """
+                [
+                    { "userId": "%1$s", "accountType": "SAVINGS", "currency": "USD" },
+                    { "userId": "%1$s", "accountType": "SAVINGS" },
+                    { "userId": "%1$s", "accountType": "CURRENT", "currency": "EUR" }
+                ]""".formatted(existingUser.getId());
+
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/accounts:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + getToken("nina.patel@example.com", "pass123"))
+                .content(batchRequest)
+                .exchange();
+
+        assertThat(testResult).hasStatusOk();
+        assertThat(testResult).bodyJson().extractingPath("$.created").isEqualTo(2);
+        assertThat(testResult).bodyJson().extractingPath("$.rejected").isEqualTo(1);
+        assertThat(testResult).bodyJson().extractingPath("$.results[0].status").isEqualTo(201);
+        assertThat(testResult).bodyJson().extractingPath("$.results[0].account.currency").isEqualTo("USD");
+        assertThat(testResult).bodyJson().hasPath("$.results[0].account._links.self.href");
+        assertThat(testResult).bodyJson().extractingPath("$.results[1].status").isEqualTo(400);
+        assertThat(testResult).bodyJson().extractingPath("$.results[1].errors[0]").isEqualTo("Missing required field: currency");
+        assertThat(testResult).bodyJson().extractingPath("$.results[2].status").isEqualTo(201);
+        assertThat(testResult).bodyJson().extractingPath("$.results[2].account.currency").isEqualTo("EUR");
+    }
+
+    @Test
+    void itRejectsAccountsOfOtherUsers() {
+        User existingUser = userService.createUser(new UserCreateRequest("Iris Nowak", "iris.nowak@example.com", "pass123"));
+        User anotherUser = userService.createUser(new UserCreateRequest("Paul Nowak", "paul.nowak@example.com", "pass123"));
+        String batchRequest = """
+                [
+                    { "userId": "%s", "accountType": "SAVINGS", "currency": "USD" },
+                    { "userId": "%s", "accountType": "SAVINGS", "currency": "USD" }
+                ]""".formatted(existingUser.getId(), anotherUser.getId());
+
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/accounts:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + getToken("iris.nowak@example.com", "pass123"))
+                .content(batchRequest)
+                .exchange();
+
+        assertThat(testResult).hasStatusOk();
+        assertThat(testResult).bodyJson().extractingPath("$.results[0].status").isEqualTo(201);
+        assertThat(testResult).bodyJson().extractingPath("$.results[1].status").isEqualTo(403);
+    }
+
+    private String getToken(String email, String password) {
+
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password)
+                )
+                .exchange();
+
+        try {
+            return authResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
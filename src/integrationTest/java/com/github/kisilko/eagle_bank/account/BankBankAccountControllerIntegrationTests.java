@@ -3,6 +3,7 @@ package com.github.kisilko.eagle_bank.account;
 import com.github.kisilko.eagle_bank.user.User;
 import com.github.kisilko.eagle_bank.user.UserCreateRequest;
 import com.github.kisilko.eagle_bank.user.UserService;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
@@ -13,6 +14,10 @@ import org.springframework.test.web.servlet.assertj.MockMvcTester;
 import org.springframework.test.web.servlet.assertj.MvcTestResult;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -60,6 +65,251 @@ public class BankBankAccountControllerIntegrationTests {
 
     }
 
+    @Test
+    void loggedInUserListsOwnAccountsPageByPage() {
+        User existingUser = userService.createUser(new UserCreateRequest("Mark Lee", "mark.lee@example.com", "pass123"));
+        String token = getToken("mark.lee@example.com", "pass123");
+        for (String currency : new String[]{"USD", "EUR", "GBP"}) {
+            createAccount(token, existingUser.getId(), currency);
+        }
+
+        MvcTestResult firstPage = mockMvcTester
+                .get()
+                .uri("/v1/accounts?size=2")
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+
+        assertThat(firstPage).hasStatusOk();
+        assertThat(firstPage).bodyJson().extractingPath("$._embedded.accounts").asArray().hasSize(2);
+        assertThat(firstPage).bodyJson().extractingPath("$._embedded.accounts[0].currency").isEqualTo("USD");
+        assertThat(firstPage).bodyJson().hasPath("$._links.next.href");
+
+        String nextPageUri = JsonPath.read(getContent(firstPage), "$._links.next.href");
+
+        MvcTestResult secondPage = mockMvcTester
+                .get()
+                .uri(nextPageUri)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+
+        assertThat(secondPage).hasStatusOk();
+        assertThat(secondPage).bodyJson().extractingPath("$._embedded.accounts").asArray().hasSize(1);
+        assertThat(secondPage).bodyJson().extractingPath("$._embedded.accounts[0].currency").isEqualTo("GBP");
+        assertThat(secondPage).bodyJson().doesNotHavePath("$._links.next");
+    }
+
+    @Test
+    void itLeavesOutTheNextLinkOnAFullLastPage() {
+        User existingUser = userService.createUser(new UserCreateRequest("Lena Full", "lena.full@example.com", "pass123"));
+        String token = getToken("lena.full@example.com", "pass123");
+        for (String currency : new String[]{"USD", "EUR", "GBP", "CHF"}) {
+            createAccount(token, existingUser.getId(), currency);
+        }
+
+        MvcTestResult firstPage = listAccounts(token, "/v1/accounts?size=2");
+        MvcTestResult lastPage = listAccounts(token, JsonPath.read(getContent(firstPage), "$._links.next.href"));
+
+        assertThat(lastPage).hasStatusOk();
+        assertThat(lastPage).bodyJson().extractingPath("$._embedded.accounts").asArray().hasSize(2);
+        assertThat(lastPage).bodyJson().extractingPath("$._embedded.accounts[1].currency").isEqualTo("CHF");
+        assertThat(lastPage).bodyJson().doesNotHavePath("$._links.next");
+    }
+
+    @Test
+    void itReturnsAnEmptyPage() {
+        User existingUser = userService.createUser(new UserCreateRequest("Ezra Empty", "ezra.empty@example.com", "pass123"));
+        String token = getToken("ezra.empty@example.com", "pass123");
+
+        MvcTestResult noAccounts = listAccounts(token, "/v1/accounts?size=2");
+
+        assertThat(noAccounts).hasStatusOk();
+        assertThat(noAccounts).bodyJson().doesNotHavePath("$._embedded.accounts");
+        assertThat(noAccounts).bodyJson().doesNotHavePath("$._links.next");
+
+        long accountId = createAccountAndGetId(token, existingUser.getId());
+        MvcTestResult pastTheLastAccount = listAccounts(token, "/v1/accounts?size=2&after=" + accountId);
+
+        assertThat(pastTheLastAccount).hasStatusOk();
+        assertThat(pastTheLastAccount).bodyJson().doesNotHavePath("$._embedded.accounts");
+        assertThat(pastTheLastAccount).bodyJson().doesNotHavePath("$._links.next");
+        assertThat(pastTheLastAccount).bodyJson().extractingPath("$._links.self.href").asString().endsWith("after=" + accountId);
+    }
+
+    @Test
+    void itPagesThroughAccountsCreatedInTheSameMillisecond() {
+        User existingUser = userService.createUser(new UserCreateRequest("Tia Tie", "tia.tie@example.com", "pass123"));
+        String token = getToken("tia.tie@example.com", "pass123");
+        // created in one call, so most ids share their millisecond and differ only in the sequence
+        MvcTestResult batch = mockMvcTester
+                .post()
+                .uri("/v1/accounts:batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content(IntStream.range(0, 9)
+                        .mapToObj(i -> """
+                                { "userId": "%s", "accountType": "CURRENT", "currency": "USD" }""".formatted(existingUser.getId()))
+                        .collect(Collectors.joining(",", "[", "]")))
+                .exchange();
+        assertThat(batch).hasStatusOk();
+        List<Long> createdIds = ids(getContent(batch), "$.results[*].account.id");
+
+        List<Long> listedIds = new ArrayList<>();
+        String pageUri = "/v1/accounts?size=2";
+        while (pageUri != null) {
+            String page = getContent(listAccounts(token, pageUri));
+            listedIds.addAll(ids(page, "$._embedded.accounts[*].id"));
+            List<String> next = JsonPath.read(page, "$._links[?(@.next)].next.href");
+            pageUri = next.isEmpty() ? null : next.getFirst();
+        }
+
+        assertThat(listedIds).hasSize(9).isSorted().containsExactlyInAnyOrderElementsOf(createdIds);
+    }
+
+    @Test
+    void itReturnsForbiddenWhenListingAnotherUsersAccounts() {
+        userService.createUser(new UserCreateRequest("Amy Chen", "amy.chen@example.com", "pass123"));
+        User anotherUser = userService.createUser(new UserCreateRequest("Tom Ford", "tom.ford@example.com", "pass123"));
+
+        MvcTestResult testResult = mockMvcTester
+                .get()
+                .uri("/v1/accounts?userId={userId}", anotherUser.getId())
+                .header("Authorization", "Bearer " + getToken("amy.chen@example.com", "pass123"))
+                .exchange();
+
+        assertThat(testResult)
+                .hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void itReturnsForbiddenWhenFetchingAnotherUsersAccount() {
+        User owner = userService.createUser(new UserCreateRequest("Lena Ortiz", "lena.ortiz@example.com", "pass123"));
+        userService.createUser(new UserCreateRequest("Sam Ortiz", "sam.ortiz@example.com", "pass123"));
+        long accountId = createAccountAndGetId(getToken("lena.ortiz@example.com", "pass123"), owner.getId());
+        String otherToken = getToken("sam.ortiz@example.com", "pass123");
+
+        assertThat(fetchAccount(otherToken, accountId, null)).hasStatus(HttpStatus.FORBIDDEN);
+        assertThat(fetchAccount(otherToken, accountId, "\"0\"")).hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void itReturnsNotFoundWhenAccountDoesNotExist() {
+        userService.createUser(new UserCreateRequest("Rita Gomez", "rita.gomez@example.com", "pass123"));
+
+        MvcTestResult testResult = fetchAccount(getToken("rita.gomez@example.com", "pass123"), 999_999, null);
+
+        assertThat(testResult).hasStatus(HttpStatus.NOT_FOUND);
+    }
+
+    @Test
+    void itReturnsForbiddenWhenCreatingAnAccountForAnotherUser() {
+        userService.createUser(new UserCreateRequest("Ken Ito", "ken.ito@example.com", "pass123"));
+        User anotherUser = userService.createUser(new UserCreateRequest("Yuki Ito", "yuki.ito@example.com", "pass123"));
+
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + getToken("ken.ito@example.com", "pass123"))
+                .content("""
+                        { "userId": "%s", "accountType": "CURRENT", "currency": "USD" }""".formatted(anotherUser.getId()))
+                .exchange();
+
+        assertThat(testResult).hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void itAnswersNotModifiedUntilTheBalanceChanges() {
+        User existingUser = userService.createUser(new UserCreateRequest("Nina Park", "nina.park@example.com", "pass123"));
+        String token = getToken("nina.park@example.com", "pass123");
+        long accountId = createAccountAndGetId(token, existingUser.getId());
+
+        MvcTestResult firstPoll = fetchAccount(token, accountId, null);
+        String eTag = firstPoll.getResponse().getHeader("ETag");
+        MvcTestResult secondPoll = fetchAccount(token, accountId, eTag);
+
+        assertThat(firstPoll).hasStatusOk();
+        assertThat(eTag).isNotBlank();
+        assertThat(secondPoll).hasStatus(HttpStatus.NOT_MODIFIED).hasHeader("ETag", eTag);
+        assertThat(getContent(secondPoll)).isEmpty();
+
+        assertThat(mockMvcTester
+                .post()
+                .uri("/v1/accounts/{accountId}/transactions", accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        { "type": "DEPOSIT", "amount": 10.00 }""")
+                .exchange()).hasStatus(HttpStatus.CREATED);
+
+        MvcTestResult pollAfterDeposit = fetchAccount(token, accountId, eTag);
+
+        assertThat(pollAfterDeposit).hasStatusOk();
+        assertThat(pollAfterDeposit.getResponse().getHeader("ETag")).isNotEqualTo(eTag);
+        assertThat(pollAfterDeposit).bodyJson().extractingPath("$.balance").isEqualTo(10.0);
+    }
+
+    private long createAccountAndGetId(String token, Long userId) {
+        MvcTestResult created = mockMvcTester
+                .post()
+                .uri("/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        { "userId": "%s", "accountType": "CURRENT", "currency": "USD" }""".formatted(userId))
+                .exchange();
+
+        assertThat(created).hasStatus(HttpStatus.CREATED);
+        return JsonPath.<Number>read(getContent(created), "$.id").longValue();
+    }
+
+    private MvcTestResult listAccounts(String token, String uri) {
+        return mockMvcTester
+                .get()
+                .uri(uri)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+
+    private static List<Long> ids(String json, String path) {
+        return JsonPath.<List<Number>>read(json, path).stream().map(Number::longValue).toList();
+    }
+
+    private MvcTestResult fetchAccount(String token, long accountId, String ifNoneMatch) {
+        var request = mockMvcTester
+                .get()
+                .uri("/v1/accounts/{accountId}", accountId)
+                .header("Authorization", "Bearer " + token);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return request.exchange();
+    }
+
+    private void createAccount(String token, Long userId, String currency) {
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        {
+                            "userId": "%s",
+                            "accountType": "CURRENT",
+                            "currency": "%s"
+                        }""".formatted(userId, currency))
+                .exchange();
+
+        assertThat(testResult).hasStatus(HttpStatus.CREATED);
+    }
+
+    private String getContent(MvcTestResult testResult) {
+        try {
+            return testResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private String getToken(String email, String password) {
 
         MvcTestResult authResult = mockMvcTester
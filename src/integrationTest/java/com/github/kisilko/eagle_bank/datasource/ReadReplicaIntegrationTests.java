@@ -0,0 +1,166 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountCreateRequest;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two H2 databases. Nothing replicates between them, so {@link #replicate} copies the primary to the
+ * replica, and balances changed on the replica only show which database a read went to.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReadReplicaIntegrationTests.PRIMARY_URL,
+        "datasource.replica.url=" + ReadReplicaIntegrationTests.REPLICA_URL,
+        "datasource.replica.username=sa",
+        "datasource.replica.password=password",
+        "datasource.replica.max-lag=1s",
+        "datasource.replica.lag-check-interval=1h", // checked by the tests
+        "datasource.replica.lag-query=select lag_ms from replication_status",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false", // reads must reach a database
+        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+})
+@AutoConfigureMockMvc
+public class ReadReplicaIntegrationTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1";
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final BankAccountService bankAccountService;
+    private final ReplicaRouting replicaRouting;
+    private final ObjectMapper objectMapper;
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", "password"));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+
+    public ReadReplicaIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                       @Autowired UserService userService,
+                                       @Autowired BankAccountService bankAccountService,
+                                       @Autowired ReplicaRouting replicaRouting,
+                                       @Autowired ObjectMapper objectMapper) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.bankAccountService = bankAccountService;
+        this.replicaRouting = replicaRouting;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void itReadsFromTheReplicaInReadOnlyTransactions() {
+        BankAccount account = createAccount("Rhea Lowe", "rhea.lowe@example.com");
+        replicate(0);
+        setReplicaBalance(account, "77.00");
+
+        assertThat(bankAccountService.findById(account.getId())).get()
+                .extracting(BankAccount::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("77.00"));
+    }
+
+    @Test
+    void itReadsFromThePrimaryWhileTheReplicaLagsBehind() {
+        BankAccount account = createAccount("Owen Price", "owen.price@example.com");
+        replicate(5000);
+        setReplicaBalance(account, "77.00");
+
+        assertThat(bankAccountService.findById(account.getId())).get()
+                .extracting(BankAccount::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("0.00"));
+    }
+
+    @Test
+    void itReadsTheWritesOfACallerFromThePrimary() {
+        BankAccount account = createAccount("Iris Chen", "iris.chen@example.com");
+        replicate(0);
+        setReplicaBalance(account, "77.00");
+        String token = getToken("iris.chen@example.com", "pass123");
+
+        assertThat(fetchAccount(token, account)).bodyJson().extractingPath("$.balance").isEqualTo(77.0);
+
+        MvcTestResult deposit = mockMvcTester
+                .post()
+                .uri("/v1/accounts/{accountId}/transactions", account.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        {
+                            "type": "DEPOSIT",
+                            "amount": 10
+                        }""")
+                .exchange();
+        assertThat(deposit).hasStatus(HttpStatus.CREATED);
+
+        assertThat(fetchAccount(token, account)).bodyJson().extractingPath("$.balance").isEqualTo(10.0);
+    }
+
+    private BankAccount createAccount(String name, String email) {
+        User user = userService.createUser(new UserCreateRequest(name, email, "pass123"));
+        BankAccountCreateRequest request = objectMapper.convertValue(
+                Map.of("userId", user.getId(), "accountType", "SAVINGS", "currency", "GBP"), BankAccountCreateRequest.class);
+        return bankAccountService.createAccount(request);
+    }
+
+    /**
+     * Copies the primary to the replica, which then reports the given lag.
+     */
+    private void replicate(long lagMillis) {
+        replica.execute("DROP ALL OBJECTS");
+        primary.queryForList("SCRIPT", String.class).stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .forEach(replica::execute);
+        replica.execute("CREATE TABLE replication_status (lag_ms BIGINT)");
+        replica.update("INSERT INTO replication_status VALUES (?)", lagMillis);
+        replicaRouting.checkLag();
+    }
+
+    private void setReplicaBalance(BankAccount account, String balance) {
+        replica.update("UPDATE accounts SET balance = ? WHERE id = ?", new BigDecimal(balance), account.getId());
+    }
+
+    private MvcTestResult fetchAccount(String token, BankAccount account) {
+        return mockMvcTester
+                .get()
+                .uri("/v1/accounts/{accountId}", account.getId())
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+
+    private String getToken(String email, String password) {
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password)
+                )
+                .exchange();
+
+        try {
+            return authResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import com.github.kisilko.eagle_bank.user.Role;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserService;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs against two H2 databases with the caches on. A user is renamed on the replica only, so a cached name shows
+ * which database filled the cache.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + ReplicaCachingIntegrationTests.PRIMARY_URL,
+        "datasource.replica.url=" + ReplicaCachingIntegrationTests.REPLICA_URL,
+        "datasource.replica.username=sa",
+        "datasource.replica.password=password",
+        "datasource.replica.max-lag=1s",
+        "datasource.replica.lag-check-interval=1h", // checked by the tests
+        "datasource.replica.lag-query=select lag_ms from replication_status",
+})
+public class ReplicaCachingIntegrationTests {
+
+    static final String PRIMARY_URL = "jdbc:h2:mem:caching-primary;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_URL = "jdbc:h2:mem:caching-replica;DB_CLOSE_DELAY=-1";
+
+    private static final AtomicLong IDS = new AtomicLong(1_000_000);
+
+    private final UserService userService;
+    private final ReplicaRouting replicaRouting;
+    private final EntityManagerFactory entityManagerFactory;
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", "password"));
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+
+    public ReplicaCachingIntegrationTests(@Autowired UserService userService,
+                                         @Autowired ReplicaRouting replicaRouting,
+                                         @Autowired EntityManagerFactory entityManagerFactory) {
+        this.userService = userService;
+        this.replicaRouting = replicaRouting;
+        this.entityManagerFactory = entityManagerFactory;
+    }
+
+    @Test
+    void itDoesNotCacheUsersReadById() {
+        long userId = insertUser("mara.quinn@example.com");
+        replicate(0);
+        replica.update("UPDATE users SET name = 'Replica Name' WHERE id = ?", userId);
+
+        assertThat(userService.findById(userId)).get().extracting(User::getName).isEqualTo("Replica Name");
+        assertThat(entityManagerFactory.getCache().contains(User.class, userId)).isFalse();
+
+        setReplicaLag(5000);
+
+        assertThat(userService.findById(userId)).get().extracting(User::getName).isEqualTo("Primary Name");
+        assertThat(entityManagerFactory.getCache().contains(User.class, userId)).isTrue();
+    }
+
+    @Test
+    void itDoesNotCacheUsersReadByEmail() {
+        long userId = insertUser("theo.marsh@example.com");
+        replicate(0);
+        replica.update("UPDATE users SET name = 'Replica Name' WHERE id = ?", userId);
+
+        assertThat(userService.findByEmail("theo.marsh@example.com")).get().extracting(User::getName).isEqualTo("Replica Name");
+        assertThat(entityManagerFactory.getCache().contains(User.class, userId)).isFalse();
+
+        setReplicaLag(5000);
+
+        assertThat(userService.findByEmail("theo.marsh@example.com")).get().extracting(User::getName).isEqualTo("Primary Name");
+    }
+
+    /**
+     * Inserts the user without the application, so neither cache has seen it.
+     */
+    private long insertUser(String email) {
+        long userId = IDS.incrementAndGet();
+        primary.update("INSERT INTO users (id, name, email, password, roles, version) VALUES (?, 'Primary Name', ?, 'hash', ?, 0)",
+                userId, email, Role.USER.bit());
+        return userId;
+    }
+
+    /**
+     * Copies the primary to the replica, which then reports the given lag.
+     */
+    private void replicate(long lagMillis) {
+        replica.execute("DROP ALL OBJECTS");
+        primary.queryForList("SCRIPT", String.class).stream()
+                .filter(statement -> !statement.startsWith("--"))
+                .forEach(replica::execute);
+        replica.execute("CREATE TABLE replication_status (lag_ms BIGINT)");
+        setReplicaLag(lagMillis);
+    }
+
+    private void setReplicaLag(long lagMillis) {
+        replica.update("DELETE FROM replication_status");
+        replica.update("INSERT INTO replication_status VALUES (?)", lagMillis);
+        replicaRouting.checkLag();
+    }
+}
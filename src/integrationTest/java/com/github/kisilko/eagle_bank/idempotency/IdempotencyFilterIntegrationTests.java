@@ -0,0 +1,171 @@
+package com.github.kisilko.eagle_bank.idempotency;
+
+import com.github.kisilko.eagle_bank.account.BankAccountRepository;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class IdempotencyFilterIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final BankAccountRepository bankAccountRepository;
+
+    public IdempotencyFilterIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                             @Autowired UserService userService,
+                                             @Autowired BankAccountRepository bankAccountRepository) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.bankAccountRepository = bankAccountRepository;
+    }
+
+    @Test
+    void itReplaysTheResponseForARepeatedKey() {
+        String newUserJson = """
+                {
+                    "name": "Grace Hall",
+                    "email": "grace.hall@example.com",
+                    "password": "secret_pass"
+                }""";
+
+        MvcTestResult first = createUser("0b7c5a8e-grace", newUserJson);
+        MvcTestResult retry = createUser("0b7c5a8e-grace", newUserJson);
+
+        assertThat(first).hasStatus(HttpStatus.CREATED).doesNotContainHeader(IdempotencyFilter.REPLAYED_HEADER);
+        assertThat(retry).hasStatus(HttpStatus.CREATED).hasHeader(IdempotencyFilter.REPLAYED_HEADER, "true");
+        assertThat(retry).hasHeader("Location", first.getResponse().getHeader("Location"));
+        assertThat(getContent(retry)).isEqualTo(getContent(first));
+    }
+
+    @Test
+    void itRejectsAKeyReusedWithADifferentBody() {
+        createUser("5d1e2f3a-ivan", """
+                { "name": "Ivan Petrov", "email": "ivan.petrov@example.com", "password": "secret_pass" }""");
+
+        MvcTestResult testResult = createUser("5d1e2f3a-ivan", """
+                { "name": "Ivan Petrov", "email": "ivan.petrov2@example.com", "password": "secret_pass" }""");
+
+        assertThat(testResult).hasStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(userService.findByEmail("ivan.petrov2@example.com")).isEmpty();
+    }
+
+    @Test
+    void itRunsConcurrentRequestsWithTheSameKeyOnce() throws Exception {
+        User existingUser = userService.createUser(new UserCreateRequest("Hugo Diaz", "hugo.diaz@example.com", "pass123"));
+        String token = getToken("hugo.diaz@example.com", "pass123");
+        String accountCreationRequest = """
+                {
+                    "userId": "%s",
+                    "accountType": "SAVINGS",
+                    "currency": "USD"
+                }""".formatted(existingUser.getId());
+
+        List<MvcTestResult> results;
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            List<CompletableFuture<MvcTestResult>> requests = IntStream.range(0, 8)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> mockMvcTester
+                            .post()
+                            .uri("/v1/accounts")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .header("Authorization", "Bearer " + token)
+                            .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "9f8e7d6c-hugo")
+                            .content(accountCreationRequest)
+                            .exchange(), executor))
+                    .toList();
+            results = requests.stream().map(CompletableFuture::join).toList();
+        }
+
+        assertThat(results).allSatisfy(result -> assertThat(result).hasStatus(HttpStatus.CREATED));
+        assertThat(results.stream().map(result -> JsonPath.<Number>read(getContent(result), "$.id").longValue()).distinct()).hasSize(1);
+        assertThat(bankAccountRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(existingUser.getId(), 0L, Limit.of(10))).hasSize(1);
+    }
+
+    @Test
+    void itReplaysAsynchronouslyPostedTransactions() {
+        User existingUser = userService.createUser(new UserCreateRequest("Jana Novak", "jana.novak@example.com", "pass123"));
+        String token = getToken("jana.novak@example.com", "pass123");
+        MvcTestResult account = mockMvcTester
+                .post()
+                .uri("/v1/accounts")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        { "userId": "%s", "accountType": "SAVINGS", "currency": "GBP" }""".formatted(existingUser.getId()))
+                .exchange();
+        long accountId = JsonPath.<Number>read(getContent(account), "$.id").longValue();
+
+        List<MvcTestResult> deposits = IntStream.range(0, 2)
+                .mapToObj(i -> mockMvcTester
+                        .post()
+                        .uri("/v1/accounts/{accountId}/transactions", accountId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Authorization", "Bearer " + token)
+                        .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, "3c4d5e6f-jana")
+                        .content("""
+                                { "type": "DEPOSIT", "amount": 25 }""")
+                        .exchange())
+                .toList();
+
+        assertThat(deposits.get(0)).hasStatus(HttpStatus.CREATED).doesNotContainHeader(IdempotencyFilter.REPLAYED_HEADER);
+        assertThat(deposits.get(1)).hasStatus(HttpStatus.CREATED).hasHeader(IdempotencyFilter.REPLAYED_HEADER, "true");
+        assertThat(getContent(deposits.get(1))).isNotEmpty().isEqualTo(getContent(deposits.get(0)));
+        assertThat(bankAccountRepository.findById(accountId)).hasValueSatisfying(bankAccount ->
+                assertThat(bankAccount.getBalance()).isEqualByComparingTo("25"));
+    }
+
+    private MvcTestResult createUser(String idempotencyKey, String body) {
+        return mockMvcTester
+                .post()
+                .uri("/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, idempotencyKey)
+                .content(body)
+                .exchange();
+    }
+
+    private String getContent(MvcTestResult testResult) {
+        try {
+            return testResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String getToken(String email, String password) {
+
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password)
+                )
+                .exchange();
+
+        return getContent(authResult);
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.github.kisilko.eagle_bank.user.Role;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AuthControllerIntegrationTests {
+
+    private static final String OUTDATED_HASH = "{noop}pass123";
+
+    private final MockMvcTester mockMvcTester;
+    private final JdbcTemplate jdbcTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    public AuthControllerIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                          @Autowired JdbcTemplate jdbcTemplate,
+                                          @Autowired PasswordEncoder passwordEncoder) {
+        this.mockMvcTester = mockMvcTester;
+        this.jdbcTemplate = jdbcTemplate;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Test
+    void itUpgradesAnOutdatedHashOnLogin() throws InterruptedException {
+        long userId = insertUser(44_000_001L, "olive.upgrade@example.com");
+
+        MvcTestResult testResult = login("olive.upgrade@example.com", "pass123");
+
+        assertThat(testResult).hasStatus(HttpStatus.OK).bodyText().isNotBlank();
+        String password = awaitUpgradedPassword(userId);
+        assertThat(password).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.matches("pass123", password)).isTrue();
+        assertThat(passwordEncoder.upgradeEncoding(password)).isFalse();
+        assertThat(login("olive.upgrade@example.com", "pass123")).hasStatus(HttpStatus.OK);
+    }
+
+    @Test
+    void itKeepsTheHashWhenTheLoginFails() {
+        long userId = insertUser(44_000_002L, "owen.upgrade@example.com");
+
+        assertThat(login("owen.upgrade@example.com", "wrong")).hasStatus(HttpStatus.UNAUTHORIZED);
+
+        assertThat(passwordOf(userId)).isEqualTo(OUTDATED_HASH);
+    }
+
+    /**
+     * Inserts the user without the application, as if its hash had been stored before bcrypt was the default.
+     */
+    private long insertUser(long userId, String email) {
+        jdbcTemplate.update("INSERT INTO users (id, name, email, password, roles, version) VALUES (?, 'Outdated Hash', ?, ?, ?, 0)",
+                userId, email, OUTDATED_HASH, Role.USER.bit());
+        return userId;
+    }
+
+    /**
+     * The login returns before the upgraded hash is written.
+     */
+    private String awaitUpgradedPassword(long userId) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        String password = passwordOf(userId);
+        while (password.equals(OUTDATED_HASH) && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+            password = passwordOf(userId);
+        }
+        return password;
+    }
+
+    private String passwordOf(long userId) {
+        return jdbcTemplate.queryForObject("SELECT password FROM users WHERE id = ?", String.class, userId);
+    }
+
+    private MvcTestResult login(String email, String password) {
+        return mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password))
+                .exchange();
+    }
+}
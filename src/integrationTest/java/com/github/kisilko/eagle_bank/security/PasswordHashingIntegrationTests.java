@@ -0,0 +1,112 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:password-hashing", // separate from the database of the default test context
+        "security.password-hashing.pool-size=1",
+        "security.password-hashing.queue-capacity=1",
+        "security.password-hashing.retry-after-seconds=3",
+})
+@AutoConfigureMockMvc
+public class PasswordHashingIntegrationTests {
+
+    /**
+     * Holds every password check until the test releases it, so the pool stays busy.
+     */
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+    private static final CountDownLatch CHECKING = new CountDownLatch(1);
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final MeterRegistry meterRegistry;
+
+    public PasswordHashingIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                           @Autowired UserService userService,
+                                           @Autowired MeterRegistry meterRegistry) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Test
+    void itRejectsLoginsWithRetryAfterWhileThePoolIsSaturated() throws Exception {
+        userService.createUser(new UserCreateRequest("Sam Saturate", "sam.saturate@example.com", "pass123"));
+
+        CompletableFuture<MvcTestResult> running = CompletableFuture.supplyAsync(() -> login("sam.saturate@example.com"));
+        assertThat(CHECKING.await(10, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<MvcTestResult> queued = CompletableFuture.supplyAsync(() -> login("sam.saturate@example.com"));
+        awaitQueued(1);
+
+        MvcTestResult rejected = login("sam.saturate@example.com");
+
+        RELEASE.countDown();
+        assertThat(rejected).hasStatus(HttpStatus.SERVICE_UNAVAILABLE).hasHeader("Retry-After", "3");
+        assertThat(running.get(10, TimeUnit.SECONDS)).hasStatus(HttpStatus.OK);
+        assertThat(queued.get(10, TimeUnit.SECONDS)).hasStatus(HttpStatus.OK);
+        assertThat(meterRegistry.get("security.password.hashing.rejected").counter().count()).isEqualTo(1);
+    }
+
+    private void awaitQueued(int tasks) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (meterRegistry.get("executor.queued").tag("name", "password-hashing").gauge().value() < tasks) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+
+    private MvcTestResult login(String email) {
+        return mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "pass123"
+                        }""".formatted(email))
+                .exchange();
+    }
+
+    @TestConfiguration
+    static class BlockingPasswordEncoderConfig {
+
+        @Bean
+        @Primary
+        PasswordEncoder blockingPasswordEncoder() {
+            return new BCryptPasswordEncoder(4) {
+                @Override
+                public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                    CHECKING.countDown();
+                    try {
+                        RELEASE.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return super.matches(rawPassword, encodedPassword);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.github.kisilko.eagle_bank.user.Role;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:rate-limit", // separate from the database of the default test context
+        "security.rate-limit.enabled=true",
+        "security.rate-limit.default-limit.requests=5",
+        "security.rate-limit.default-limit.period=1m",
+        "security.rate-limit.routes[0].method=POST",
+        "security.rate-limit.routes[0].path=/v1/auth/login",
+        "security.rate-limit.routes[0].limit.requests=3",
+        "security.rate-limit.routes[0].limit.period=1m",
+        "security.rate-limit.routes[1].method=POST",
+        "security.rate-limit.routes[1].path=/v1/users",
+})
+@AutoConfigureMockMvc
+public class RateLimitFilterIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final JWTService jwtService;
+
+    public RateLimitFilterIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                           @Autowired UserService userService,
+                                           @Autowired JWTService jwtService) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.jwtService = jwtService;
+    }
+
+    @Test
+    void itRejectsLoginAttemptsBeyondTheLimitOfTheRoute() {
+        for (int remaining = 2; remaining >= 0; remaining--) {
+            assertThat(login("mallory@example.com", "guess"))
+                    .hasStatus(HttpStatus.UNAUTHORIZED)
+                    .hasHeader(RateLimitFilter.LIMIT_HEADER, "3")
+                    .hasHeader(RateLimitFilter.REMAINING_HEADER, String.valueOf(remaining));
+        }
+
+        MvcTestResult testResult = login("mallory@example.com", "guess");
+
+        assertThat(testResult).hasStatus(HttpStatus.TOO_MANY_REQUESTS)
+                .hasHeader(RateLimitFilter.REMAINING_HEADER, "0")
+                .hasHeader(RateLimitFilter.POLICY_HEADER, "3;w=60")
+                .containsHeader("Retry-After");
+        assertThat(Long.parseLong(testResult.getResponse().getHeader("Retry-After"))).isBetween(1L, 20L);
+    }
+
+    @Test
+    void itLimitsEachUserOnItsOwn() {
+        User alice = userService.createUser(new UserCreateRequest("Alice Limit", "alice.limit@example.com", "pass123"));
+        User bob = userService.createUser(new UserCreateRequest("Bob Limit", "bob.limit@example.com", "pass123"));
+        String aliceToken = jwtService.generateToken(alice.getId(), alice.getEmail(), Role.USER.bit());
+        String bobToken = jwtService.generateToken(bob.getId(), bob.getEmail(), Role.USER.bit());
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(fetchUser(alice, aliceToken)).hasStatus(HttpStatus.OK);
+        }
+
+        assertThat(fetchUser(alice, aliceToken)).hasStatus(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(fetchUser(bob, bobToken)).hasStatus(HttpStatus.OK).hasHeader(RateLimitFilter.REMAINING_HEADER, "4");
+    }
+
+    @Test
+    void itDoesNotLimitRoutesWithoutLimit() {
+        for (int i = 0; i < 10; i++) {
+            MvcTestResult testResult = mockMvcTester
+                    .post()
+                    .uri("/v1/users")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                            { "name": "Carol Limit", "email": "carol.limit%s@example.com", "password": "secret_pass" }""".formatted(i))
+                    .exchange();
+
+            assertThat(testResult).hasStatus(HttpStatus.CREATED).doesNotContainHeader(RateLimitFilter.LIMIT_HEADER);
+        }
+    }
+
+    private MvcTestResult login(String email, String password) {
+        return mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password))
+                .exchange();
+    }
+
+    private MvcTestResult fetchUser(User user, String token) {
+        return mockMvcTester
+                .get()
+                .uri("/v1/users/" + user.getId())
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+}
@@ -0,0 +1,244 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountCreateRequest;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs with the accounts spread over three H2 databases, next to the main one that holds the users.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:sharding-main",
+        "accounts.sharding.enabled=true",
+        "accounts.sharding.shards[0].name=a",
+        "accounts.sharding.shards[0].url=" + AccountShardingIntegrationTests.SHARD_URL + "a;DB_CLOSE_DELAY=-1",
+        "accounts.sharding.shards[0].username=sa",
+        "accounts.sharding.shards[1].name=b",
+        "accounts.sharding.shards[1].url=" + AccountShardingIntegrationTests.SHARD_URL + "b;DB_CLOSE_DELAY=-1",
+        "accounts.sharding.shards[1].username=sa",
+        "accounts.sharding.shards[2].name=c",
+        "accounts.sharding.shards[2].url=" + AccountShardingIntegrationTests.SHARD_URL + "c;DB_CLOSE_DELAY=-1",
+        "accounts.sharding.shards[2].username=sa",
+})
+@AutoConfigureMockMvc
+public class AccountShardingIntegrationTests {
+
+    static final String SHARD_URL = "jdbc:h2:mem:shard-";
+
+    private static final AtomicInteger USERS = new AtomicInteger();
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final BankAccountService bankAccountService;
+    private final AccountShards accountShards;
+    private final ShardRebalancer shardRebalancer;
+    private final ObjectMapper objectMapper;
+
+    public AccountShardingIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                           @Autowired UserService userService,
+                                           @Autowired BankAccountService bankAccountService,
+                                           @Autowired AccountShards accountShards,
+                                           @Autowired ShardRebalancer shardRebalancer,
+                                           @Autowired ObjectMapper objectMapper) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.bankAccountService = bankAccountService;
+        this.accountShards = accountShards;
+        this.shardRebalancer = shardRebalancer;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void itKeepsAccountsOnTheShardOfTheirOwner() {
+        for (int i = 0; i < 12; i++) {
+            User user = createUser();
+            BankAccount account = createAccount(user);
+            String shard = accountShards.shardOf(user.getId());
+
+            for (String other : accountShards.shards()) {
+                assertThat(countAccounts(other, account.getId())).isEqualTo(other.equals(shard) ? 1 : 0);
+            }
+            assertThat(fetchAccount(getToken(user), account.getId())).hasStatusOk()
+                    .bodyJson().extractingPath("$.userId").isEqualTo(user.getId().intValue());
+        }
+    }
+
+    @Test
+    void itPostsTransactionsOnTheShardOfTheAccount() {
+        User user = createUser();
+        BankAccount account = createAccount(user);
+        String token = getToken(user);
+
+        MvcTestResult deposit = mockMvcTester
+                .post()
+                .uri("/v1/accounts/{accountId}/transactions", account.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        { "type": "DEPOSIT", "amount": 25 }""")
+                .exchange();
+
+        assertThat(deposit).hasStatus(HttpStatus.CREATED);
+        assertThat(shard(accountShards.shardOf(user.getId()))
+                .queryForObject("select count(*) from transactions where account_id = ?", Integer.class, account.getId()))
+                .isEqualTo(1);
+        assertThat(fetchAccount(token, account.getId())).bodyJson().extractingPath("$.balance").isEqualTo(25.0);
+    }
+
+    @Test
+    void itRejectsTransfersBetweenAccountsOnDifferentShards() {
+        User sender = createUser();
+        User recipient = createUser();
+        while (accountShards.shardOf(recipient.getId()).equals(accountShards.shardOf(sender.getId()))) {
+            recipient = createUser();
+        }
+        BankAccount from = createAccount(sender);
+        BankAccount to = createAccount(recipient);
+        String token = getToken(sender);
+
+        MvcTestResult transfer = mockMvcTester
+                .post()
+                .uri("/v1/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        {
+                            "fromAccountId": %s,
+                            "toAccountId": %s,
+                            "amount": 0.01
+                        }""".formatted(from.getId(), to.getId()))
+                .exchange();
+
+        assertThat(transfer).hasStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+    }
+
+    @Test
+    void itMovesAccountsToTheShardOfTheirOwnerWhenRebalancing() {
+        User user = createUser();
+        String shard = accountShards.shardOf(user.getId());
+        String otherShard = accountShards.shards().stream().filter(name -> !name.equals(shard)).findFirst().orElseThrow();
+        // as if the account had been created before its owner's shard was added
+        long accountId = 1_000 + USERS.get();
+        shard(otherShard).update("insert into accounts (id, user_id, account_type, currency, balance, version) values (?, ?, 'SAVINGS', 'GBP', 40.00, 0)",
+                accountId, user.getId());
+        String token = getToken(user);
+
+        assertThat(fetchAccount(token, accountId)).hasStatus(HttpStatus.NOT_FOUND);
+
+        ShardRebalanceReport report = shardRebalancer.rebalance();
+
+        assertThat(report.users()).isPositive();
+        assertThat(report.accounts()).isPositive();
+        assertThat(countAccounts(otherShard, accountId)).isZero();
+        assertThat(countAccounts(shard, accountId)).isOne();
+        assertThat(fetchAccount(token, accountId)).hasStatusOk().bodyJson().extractingPath("$.balance").isEqualTo(40.0);
+    }
+
+    @Test
+    void itKeepsTheAccountsOfCommittedShardsWhenALaterShardFails() {
+        User committed = createUser();
+        User failing = createUser();
+        while (accountShards.shardOf(failing.getId()).equals(accountShards.shardOf(committed.getId()))) {
+            failing = createUser();
+        }
+        String failingShard = accountShards.shardOf(failing.getId());
+
+        List<Optional<BankAccount>> created;
+        shard(failingShard).execute("alter table accounts rename to accounts_away");
+        try {
+            created = bankAccountService.createAccounts(List.of(createRequest(committed), createRequest(failing), createRequest(committed)));
+        } finally {
+            shard(failingShard).execute("alter table accounts_away rename to accounts");
+        }
+
+        assertThat(created.get(1)).isEmpty();
+        for (Optional<BankAccount> account : List.of(created.get(0), created.get(2))) {
+            assertThat(account).isPresent();
+            assertThat(bankAccountService.findById(account.get().getId())).get()
+                    .extracting(BankAccount::getUserId).isEqualTo(committed.getId());
+        }
+    }
+
+    @Test
+    void itOnlyLetsAdminsRebalance() {
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/admin/shards:rebalance")
+                .header("Authorization", "Bearer " + getToken(createUser()))
+                .exchange();
+
+        assertThat(testResult).hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    private User createUser() {
+        int n = USERS.incrementAndGet();
+        return userService.createUser(new UserCreateRequest("Shard User " + n, "shard.user" + n + "@example.com", "pass123"));
+    }
+
+    private BankAccount createAccount(User user) {
+        return bankAccountService.createAccount(createRequest(user));
+    }
+
+    private BankAccountCreateRequest createRequest(User user) {
+        return objectMapper.convertValue(
+                Map.of("userId", user.getId(), "accountType", "SAVINGS", "currency", "GBP"), BankAccountCreateRequest.class);
+    }
+
+    private int countAccounts(String shard, long accountId) {
+        return shard(shard).queryForObject("select count(*) from accounts where id = ?", Integer.class, accountId);
+    }
+
+    private static JdbcTemplate shard(String name) {
+        return new JdbcTemplate(new DriverManagerDataSource(SHARD_URL + name, "sa", ""));
+    }
+
+    private MvcTestResult fetchAccount(String token, long accountId) {
+        return mockMvcTester
+                .get()
+                .uri("/v1/accounts/{accountId}", accountId)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+
+    private String getToken(User user) {
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "pass123"
+                        }""".formatted(user.getEmail())
+                )
+                .exchange();
+
+        try {
+            return authResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
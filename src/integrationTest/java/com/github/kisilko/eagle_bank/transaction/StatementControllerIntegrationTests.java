@@ -0,0 +1,156 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountCreateRequest;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StatementControllerIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final BankAccountService bankAccountService;
+    private final ObjectMapper objectMapper;
+
+    public StatementControllerIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                               @Autowired UserService userService,
+                                               @Autowired BankAccountService bankAccountService,
+                                               @Autowired ObjectMapper objectMapper) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.bankAccountService = bankAccountService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void itExportsTheStatementAsCsv() {
+        User existingUser = userService.createUser(new UserCreateRequest("Quinn Hart", "quinn.hart@example.com", "pass123"));
+        String token = getToken("quinn.hart@example.com", "pass123");
+        BankAccount account = createAccount(existingUser);
+        postTransaction(token, account.getId(), "DEPOSIT", "100.00");
+        postTransaction(token, account.getId(), "WITHDRAWAL", "30.50");
+
+        MvcTestResult testResult = getStatement(token, account.getId(), "format=csv");
+
+        assertThat(testResult).hasStatusOk().hasContentTypeCompatibleWith("text/csv");
+        List<String> lines = getContent(testResult).lines().toList();
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).isEqualTo("id,createdAt,type,amount,balanceAfter,counterpartyAccountId");
+        assertThat(lines.get(1)).contains(",DEPOSIT,100.00,100.00,");
+        assertThat(lines.get(2)).contains(",WITHDRAWAL,30.50,69.50,");
+    }
+
+    @Test
+    void itExportsTheStatementAsNdjsonWithinTheRange() {
+        User existingUser = userService.createUser(new UserCreateRequest("Rosa Vega", "rosa.vega@example.com", "pass123"));
+        String token = getToken("rosa.vega@example.com", "pass123");
+        BankAccount account = createAccount(existingUser);
+        postTransaction(token, account.getId(), "DEPOSIT", "12.00");
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+        MvcTestResult todayResult = getStatement(token, account.getId(), "format=ndjson&from=" + today + "&to=" + today);
+        MvcTestResult tomorrowResult = getStatement(token, account.getId(), "format=ndjson&from=" + today.plusDays(1) + "&to=" + today.plusDays(1));
+
+        assertThat(todayResult).hasStatusOk().hasContentTypeCompatibleWith(MediaType.APPLICATION_NDJSON);
+        List<String> lines = getContent(todayResult).lines().toList();
+        assertThat(lines).hasSize(1);
+        assertThat(JsonPath.<String>read(lines.getFirst(), "$.type")).isEqualTo("DEPOSIT");
+        assertThat(JsonPath.<Double>read(lines.getFirst(), "$.balanceAfter")).isEqualTo(12.0);
+        assertThat(getContent(tomorrowResult)).isEmpty();
+    }
+
+    @Test
+    void itRejectsInvalidStatementRequests() {
+        User existingUser = userService.createUser(new UserCreateRequest("Sven Berg", "sven.berg@example.com", "pass123"));
+        String token = getToken("sven.berg@example.com", "pass123");
+        BankAccount account = createAccount(existingUser);
+
+        assertThat(getStatement(token, account.getId(), "format=pdf")).hasStatus(HttpStatus.BAD_REQUEST);
+        assertThat(getStatement(token, account.getId(), "from=2024-02-01&to=2024-01-01")).hasStatus(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void itReturnsForbiddenForAnotherUsersStatement() {
+        userService.createUser(new UserCreateRequest("Tara Quill", "tara.quill@example.com", "pass123"));
+        User anotherUser = userService.createUser(new UserCreateRequest("Uma Reyes", "uma.reyes@example.com", "pass123"));
+        BankAccount account = createAccount(anotherUser);
+
+        MvcTestResult testResult = getStatement(getToken("tara.quill@example.com", "pass123"), account.getId(), "format=csv");
+
+        assertThat(testResult).hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    private MvcTestResult getStatement(String token, Long accountId, String query) {
+        return mockMvcTester
+                .get()
+                .uri("/v1/accounts/" + accountId + "/statement?" + query)
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+    }
+
+    private BankAccount createAccount(User user) {
+        BankAccountCreateRequest request = objectMapper.convertValue(
+                new AccountJson(user.getId(), "CURRENT", "USD"), BankAccountCreateRequest.class);
+        return bankAccountService.createAccount(request);
+    }
+
+    private void postTransaction(String token, Long accountId, String type, String amount) {
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/accounts/{accountId}/transactions", accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        { "type": "%s", "amount": %s }""".formatted(type, amount))
+                .exchange();
+        assertThat(testResult).hasStatus(HttpStatus.CREATED);
+    }
+
+    private String getContent(MvcTestResult testResult) {
+        try {
+            return testResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String getToken(String email, String password) {
+
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password)
+                )
+                .exchange();
+
+        return getContent(authResult);
+    }
+
+    private record AccountJson(Long userId, String accountType, String currency) { }
+}
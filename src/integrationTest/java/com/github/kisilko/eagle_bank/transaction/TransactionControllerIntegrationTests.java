@@ -0,0 +1,177 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountCreateRequest;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TransactionControllerIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final BankAccountService bankAccountService;
+    private final ObjectMapper objectMapper;
+
+    public TransactionControllerIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                                 @Autowired UserService userService,
+                                                 @Autowired BankAccountService bankAccountService,
+                                                 @Autowired ObjectMapper objectMapper) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.bankAccountService = bankAccountService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void itDepositsAndWithdraws() {
+        User existingUser = userService.createUser(new UserCreateRequest("Ella Stone", "ella.stone@example.com", "pass123"));
+        BankAccount account = createAccount(existingUser);
+        String token = getToken("ella.stone@example.com", "pass123");
+
+        MvcTestResult deposit = postTransaction(token, account.getId(), "DEPOSIT", "100.50");
+        assertThat(deposit).hasStatus(HttpStatus.CREATED);
+        assertThat(deposit).bodyJson().extractingPath("$.balanceAfter").isEqualTo(100.5);
+
+        MvcTestResult withdrawal = postTransaction(token, account.getId(), "WITHDRAWAL", "40.25");
+        assertThat(withdrawal).hasStatus(HttpStatus.CREATED);
+        assertThat(withdrawal).bodyJson().extractingPath("$.type").isEqualTo("WITHDRAWAL");
+        assertThat(withdrawal).bodyJson().extractingPath("$.balanceAfter").isEqualTo(60.25);
+
+        MvcTestResult details = mockMvcTester
+                .get()
+                .uri(withdrawal.getResponse().getHeader("Location"))
+                .header("Authorization", "Bearer " + token)
+                .exchange();
+        assertThat(details).hasStatusOk();
+        assertThat(details).bodyJson().extractingPath("$.amount").isEqualTo(40.25);
+
+        assertThat(bankAccountService.findById(account.getId())).get()
+                .extracting(BankAccount::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("60.25"));
+    }
+
+    @Test
+    void itRejectsWithdrawalsBeyondTheBalance() {
+        User existingUser = userService.createUser(new UserCreateRequest("Finn Walsh", "finn.walsh@example.com", "pass123"));
+        BankAccount account = createAccount(existingUser);
+        String token = getToken("finn.walsh@example.com", "pass123");
+        postTransaction(token, account.getId(), "DEPOSIT", "10.00");
+
+        MvcTestResult testResult = postTransaction(token, account.getId(), "WITHDRAWAL", "10.01");
+
+        assertThat(testResult).hasStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(bankAccountService.findById(account.getId())).get()
+                .extracting(BankAccount::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("10.00"));
+    }
+
+    @Test
+    void itRejectsInvalidAmounts() {
+        User existingUser = userService.createUser(new UserCreateRequest("Gil Moss", "gil.moss@example.com", "pass123"));
+        BankAccount account = createAccount(existingUser);
+
+        MvcTestResult testResult = postTransaction(getToken("gil.moss@example.com", "pass123"), account.getId(), "DEPOSIT", "-5");
+
+        assertThat(testResult).hasStatus(HttpStatus.BAD_REQUEST);
+        assertThat(testResult).bodyJson().extractingPath("$.errors[0]").isEqualTo("Amount must be positive");
+    }
+
+    @Test
+    void itReturnsForbiddenForAnotherUsersAccount() {
+        userService.createUser(new UserCreateRequest("Hana Ito", "hana.ito@example.com", "pass123"));
+        User anotherUser = userService.createUser(new UserCreateRequest("Ian Cole", "ian.cole@example.com", "pass123"));
+        BankAccount account = createAccount(anotherUser);
+
+        MvcTestResult testResult = postTransaction(getToken("hana.ito@example.com", "pass123"), account.getId(), "DEPOSIT", "1.00");
+
+        assertThat(testResult).hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void itKeepsTheBalanceOfAHotAccountUnderConcurrentPostings() {
+        User existingUser = userService.createUser(new UserCreateRequest("Jo Park", "jo.park@example.com", "pass123"));
+        BankAccount account = createAccount(existingUser);
+        String token = getToken("jo.park@example.com", "pass123");
+        postTransaction(token, account.getId(), "DEPOSIT", "1000.00");
+
+        List<MvcTestResult> results;
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<CompletableFuture<MvcTestResult>> postings = IntStream.range(0, 800)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                            postTransaction(token, account.getId(), i % 2 == 0 ? "DEPOSIT" : "WITHDRAWAL", "1.25"), executor))
+                    .toList();
+            results = postings.stream().map(CompletableFuture::join).toList();
+        }
+
+        assertThat(results).allSatisfy(result -> assertThat(result).hasStatus(HttpStatus.CREATED));
+        assertThat(bankAccountService.findById(account.getId())).get()
+                .extracting(BankAccount::getBalance)
+                .satisfies(balance -> assertThat(balance).isEqualByComparingTo("1000.00"));
+    }
+
+    private BankAccount createAccount(User user) {
+        BankAccountCreateRequest request = objectMapper.convertValue(
+                new AccountJson(user.getId(), "CURRENT", "USD"), BankAccountCreateRequest.class);
+        return bankAccountService.createAccount(request);
+    }
+
+    private MvcTestResult postTransaction(String token, Long accountId, String type, String amount) {
+        return mockMvcTester
+                .post()
+                .uri("/v1/accounts/{accountId}/transactions", accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        {
+                            "type": "%s",
+                            "amount": %s
+                        }""".formatted(type, amount))
+                .exchange();
+    }
+
+    private String getToken(String email, String password) {
+
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password)
+                )
+                .exchange();
+
+        try {
+            return authResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record AccountJson(Long userId, String accountType, String currency) { }
+}
@@ -0,0 +1,202 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountCreateRequest;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class TransferControllerIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final BankAccountService bankAccountService;
+    private final ObjectMapper objectMapper;
+
+    public TransferControllerIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                              @Autowired UserService userService,
+                                              @Autowired BankAccountService bankAccountService,
+                                              @Autowired ObjectMapper objectMapper) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.bankAccountService = bankAccountService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Test
+    void itMovesMoneyBetweenAccounts() {
+        User existingUser = userService.createUser(new UserCreateRequest("Kai Brandt", "kai.brandt@example.com", "pass123"));
+        String token = getToken("kai.brandt@example.com", "pass123");
+        BankAccount from = createAccount(existingUser, "USD");
+        BankAccount to = createAccount(existingUser, "USD");
+        deposit(token, from.getId(), "50.00");
+
+        MvcTestResult testResult = transfer(token, from.getId(), to.getId(), "20.00");
+
+        assertThat(testResult).hasStatus(HttpStatus.CREATED);
+        assertThat(testResult).bodyJson().extractingPath("$.debit.type").isEqualTo("TRANSFER_OUT");
+        assertThat(testResult).bodyJson().extractingPath("$.debit.balanceAfter").isEqualTo(30.0);
+        assertThat(testResult).bodyJson().extractingPath("$.credit.type").isEqualTo("TRANSFER_IN");
+        assertThat(testResult).bodyJson().extractingPath("$.credit.balanceAfter").isEqualTo(20.0);
+        assertThat(testResult).bodyJson().extractingPath("$._links.debit.href").isEqualTo(testResult.getResponse().getHeader("Location"));
+        assertThat(testResult).bodyJson().extractingPath("$.debit._links.self.href").isEqualTo(testResult.getResponse().getHeader("Location"));
+        assertThat(testResult).bodyJson().extractingPath("$.credit._links.self.href").asString().contains("/v1/accounts/" + to.getId() + "/transactions/");
+        assertThat(balanceOf(from)).isEqualByComparingTo("30.00");
+        assertThat(balanceOf(to)).isEqualByComparingTo("20.00");
+    }
+
+    @Test
+    void itRejectsTransfersBetweenCurrencies() {
+        User existingUser = userService.createUser(new UserCreateRequest("Lia Novak", "lia.novak@example.com", "pass123"));
+        String token = getToken("lia.novak@example.com", "pass123");
+        BankAccount from = createAccount(existingUser, "USD");
+        BankAccount to = createAccount(existingUser, "EUR");
+        deposit(token, from.getId(), "50.00");
+
+        assertThat(transfer(token, from.getId(), to.getId(), "20.00")).hasStatus(HttpStatus.UNPROCESSABLE_ENTITY);
+        assertThat(transfer(token, from.getId(), from.getId(), "20.00")).hasStatus(HttpStatus.BAD_REQUEST);
+    }
+
+    @Test
+    void itReturnsForbiddenWhenTransferringFromAnotherUsersAccount() {
+        User existingUser = userService.createUser(new UserCreateRequest("Max Roth", "max.roth@example.com", "pass123"));
+        User anotherUser = userService.createUser(new UserCreateRequest("Noa Levi", "noa.levi@example.com", "pass123"));
+        BankAccount from = createAccount(anotherUser, "USD");
+        BankAccount to = createAccount(existingUser, "USD");
+
+        assertThat(transfer(getToken("max.roth@example.com", "pass123"), from.getId(), to.getId(), "1.00"))
+                .hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void itConservesFundsUnderConcurrentTransfersBetweenTheSamePair() {
+        User existingUser = userService.createUser(new UserCreateRequest("Oli Grant", "oli.grant@example.com", "pass123"));
+        String token = getToken("oli.grant@example.com", "pass123");
+        BankAccount first = createAccount(existingUser, "USD");
+        BankAccount second = createAccount(existingUser, "USD");
+        deposit(token, first.getId(), "100.00");
+        deposit(token, second.getId(), "100.00");
+
+        List<MvcTestResult> results;
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            List<CompletableFuture<MvcTestResult>> transfers = IntStream.range(0, 1000)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> i % 2 == 0
+                            ? transfer(token, first.getId(), second.getId(), "7.00")
+                            : transfer(token, second.getId(), first.getId(), "3.00"), executor))
+                    .toList();
+            results = transfers.stream().map(CompletableFuture::join).toList();
+        }
+
+        assertThat(results).allSatisfy(result -> assertThat(result.getResponse().getStatus())
+                .isIn(HttpStatus.CREATED.value(), HttpStatus.UNPROCESSABLE_ENTITY.value()));
+        assertThat(balanceOf(first)).isNotNegative();
+        assertThat(balanceOf(second)).isNotNegative();
+        assertThat(balanceOf(first).add(balanceOf(second))).isEqualByComparingTo("200.00");
+    }
+
+    @Test
+    void itPaysManyAccountsFromOneSourceConcurrently() {
+        User existingUser = userService.createUser(new UserCreateRequest("Pia Kurz", "pia.kurz@example.com", "pass123"));
+        String token = getToken("pia.kurz@example.com", "pass123");
+        BankAccount payroll = createAccount(existingUser, "USD");
+        List<BankAccount> employees = IntStream.range(0, 20)
+                .mapToObj(i -> createAccount(existingUser, "USD"))
+                .toList();
+        deposit(token, payroll.getId(), "10000.00");
+
+        List<MvcTestResult> results;
+        try (ExecutorService executor = Executors.newFixedThreadPool(32)) {
+            List<CompletableFuture<MvcTestResult>> transfers = IntStream.range(0, 2000)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() ->
+                            transfer(token, payroll.getId(), employees.get(i % employees.size()).getId(), "2.50"), executor))
+                    .toList();
+            results = transfers.stream().map(CompletableFuture::join).toList();
+        }
+
+        assertThat(results).allSatisfy(result -> assertThat(result).hasStatus(HttpStatus.CREATED));
+        assertThat(balanceOf(payroll)).isEqualByComparingTo("5000.00");
+        assertThat(employees).allSatisfy(employee -> assertThat(balanceOf(employee)).isEqualByComparingTo("250.00"));
+    }
+
+    private BigDecimal balanceOf(BankAccount account) {
+        return bankAccountService.findById(account.getId()).orElseThrow().getBalance();
+    }
+
+    private BankAccount createAccount(User user, String currency) {
+        BankAccountCreateRequest request = objectMapper.convertValue(
+                new AccountJson(user.getId(), "CURRENT", currency), BankAccountCreateRequest.class);
+        return bankAccountService.createAccount(request);
+    }
+
+    private void deposit(String token, Long accountId, String amount) {
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/accounts/{accountId}/transactions", accountId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        { "type": "DEPOSIT", "amount": %s }""".formatted(amount))
+                .exchange();
+        assertThat(testResult).hasStatus(HttpStatus.CREATED);
+    }
+
+    private MvcTestResult transfer(String token, Long fromAccountId, Long toAccountId, String amount) {
+        return mockMvcTester
+                .post()
+                .uri("/v1/transfers")
+                .contentType(MediaType.APPLICATION_JSON)
+                .header("Authorization", "Bearer " + token)
+                .content("""
+                        {
+                            "fromAccountId": %s,
+                            "toAccountId": %s,
+                            "amount": %s
+                        }""".formatted(fromAccountId, toAccountId, amount))
+                .exchange();
+    }
+
+    private String getToken(String email, String password) {
+
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password)
+                )
+                .exchange();
+
+        try {
+            return authResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private record AccountJson(Long userId, String accountType, String currency) { }
+}
@@ -0,0 +1,106 @@
+package com.github.kisilko.eagle_bank.user;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+public class SecondLevelCacheIntegrationTests {
+
+    private final UserRepository userRepository;
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Statistics statistics;
+
+    public SecondLevelCacheIntegrationTests(@Autowired UserRepository userRepository,
+                                            @Autowired BankAccountRepository bankAccountRepository,
+                                            @Autowired PlatformTransactionManager transactionManager,
+                                            @Autowired EntityManagerFactory entityManagerFactory) {
+        this.userRepository = userRepository;
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void repeatedUserReadsByIdIssueNoSql() {
+        User user = saveUser("cache.by.id@example.com");
+        userRepository.findById(user.getId());
+
+        long statements = statistics.getPrepareStatementCount();
+        for (int i = 0; i < 3; i++) {
+            assertThat(userRepository.findById(user.getId())).get()
+                    .extracting(User::getEmail).isEqualTo("cache.by.id@example.com");
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics(User.CACHE_REGION).getHitCount()).isPositive();
+    }
+
+    @Test
+    void repeatedUserReadsByEmailIssueNoSql() {
+        saveUser("cache.by.email@example.com");
+        userRepository.findByEmail("cache.by.email@example.com");
+
+        long statements = statistics.getPrepareStatementCount();
+        long queryHits = statistics.getQueryRegionStatistics(User.EMAIL_QUERY_CACHE_REGION).getHitCount();
+        for (int i = 0; i < 3; i++) {
+            assertThat(userRepository.findByEmail("cache.by.email@example.com")).isPresent();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getQueryRegionStatistics(User.EMAIL_QUERY_CACHE_REGION).getHitCount()).isEqualTo(queryHits + 3);
+    }
+
+    @Test
+    void repeatedAccountReadsIssueNoSql() {
+        User user = saveUser("cache.account@example.com");
+        BankAccount account = bankAccountRepository.save(BankAccount.builder()
+                .userId(user.getId())
+                .accountType("SAVINGS")
+                .currency("USD")
+                .build());
+        bankAccountRepository.findById(account.getId());
+
+        long statements = statistics.getPrepareStatementCount();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bankAccountRepository.findById(account.getId())).isPresent();
+        }
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+    }
+
+    @Test
+    void bulkUpdatesAreNotHiddenByTheCaches() {
+        User user = saveUser("cache.update@example.com");
+        userRepository.findById(user.getId());
+        userRepository.findByEmail("cache.update@example.com");
+
+        transactionTemplate.executeWithoutResult(status -> userRepository.updateName(user.getId(), "Renamed User"));
+
+        assertThat(userRepository.findById(user.getId())).get()
+                .extracting(User::getName).isEqualTo("Renamed User");
+        assertThat(userRepository.findByEmail("cache.update@example.com")).get()
+                .extracting(User::getName).isEqualTo("Renamed User");
+    }
+
+    private User saveUser(String email) {
+        return userRepository.save(User.builder()
+                .name("Cached User")
+                .email(email)
+                .password("hash")
+                .roles(Set.of(Role.USER))
+                .build());
+    }
+}
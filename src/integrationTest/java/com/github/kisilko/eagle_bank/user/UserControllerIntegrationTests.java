@@ -91,6 +91,43 @@ public class UserControllerIntegrationTests {
                 });
     }
 
+    @Test
+    void itRespondsWithConflictIfTheEmailIsAlreadyInUse() {
+        userService.createUser(new UserCreateRequest("Alice Johnson", "alice.johnson@example.com", "secret_pass"));
+        String duplicateUserJson = """
+                    {
+                        "name": "Alice Again",
+                        "email": "alice.johnson@example.com",
+                        "password": "other_pass"
+                    }""";
+
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(duplicateUserJson)
+                .exchange();
+
+        assertThat(testResult)
+                .hasStatus(HttpStatus.CONFLICT)
+                .bodyJson()
+                .convertTo(ProblemDetail.class)
+                .satisfies(error -> assertThat(error.getDetail()).isEqualTo("Email already in use"));
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void itAllowsTheEmailOfADeletedUserToBeUsedAgain() {
+        User deletedUser = userService.createUser(new UserCreateRequest("Alice Johnson", "alice.johnson@example.com", "secret_pass"));
+        userService.deleteUser(deletedUser);
+
+        User newUser = userService.createUser(new UserCreateRequest("Alice Again", "alice.johnson@example.com", "other_pass"));
+
+        assertThat(newUser.getId()).isNotEqualTo(deletedUser.getId());
+        assertThat(userRepository.findByEmail("alice.johnson@example.com")).get()
+                .extracting(User::getName).isEqualTo("Alice Again");
+    }
+
     @Test
     void itFetchesTheExistingUserDetails() {
         User existingUser = userService.createUser(new UserCreateRequest("John Doe", "john.doe@example.com", "pass"));
@@ -132,7 +169,7 @@ public class UserControllerIntegrationTests {
     @Test
     void itReturnsNotFoundWhenUserDoesNotExist() {
         userService.createUser(new UserCreateRequest("Just User", "user@example.com", "some_pass"));
-        var nonExistentUserId = 42;
+        var nonExistentUserId = 42_000_000L; // ids of the shared test database stay far below
 
         MvcTestResult testResult = mockMvcTester
                 .get()
@@ -145,7 +182,7 @@ public class UserControllerIntegrationTests {
                 .bodyJson()
                 .convertTo(ProblemDetail.class)
                 .satisfies(error -> {
-                    assertThat(error.getDetail()).isEqualTo("User 42 not found");
+                    assertThat(error.getDetail()).isEqualTo("User 42000000 not found");
                 });
     }
 
@@ -176,6 +213,63 @@ public class UserControllerIntegrationTests {
         assertThat(userFromDb.getName()).isEqualTo(newUserName);
     }
 
+    @Test
+    void itAnswersNotModifiedUntilTheUserChanges() {
+        User existingUser = userService.createUser(new UserCreateRequest("John Doe", "john.doe@example.com", "pass"));
+        String token = getToken("john.doe@example.com", "pass");
+
+        MvcTestResult firstPoll = fetchUser(token, existingUser.getId(), null);
+        String eTag = firstPoll.getResponse().getHeader("ETag");
+        MvcTestResult secondPoll = fetchUser(token, existingUser.getId(), eTag);
+
+        assertThat(firstPoll).hasStatusOk();
+        assertThat(eTag).isNotBlank();
+        assertThat(secondPoll).hasStatus(HttpStatus.NOT_MODIFIED).hasHeader("ETag", eTag);
+        assertThat(getContent(secondPoll)).isEmpty();
+
+        MvcTestResult update = patchUser(token, existingUser.getId(), null, "Bob Smith");
+        MvcTestResult pollAfterUpdate = fetchUser(token, existingUser.getId(), eTag);
+
+        assertThat(update).hasStatusOk();
+        assertThat(pollAfterUpdate).hasStatusOk().hasHeader("ETag", update.getResponse().getHeader("ETag"));
+        assertThat(pollAfterUpdate.getResponse().getHeader("ETag")).isNotEqualTo(eTag);
+        assertThat(pollAfterUpdate).bodyJson().extractingPath("$.name").isEqualTo("Bob Smith");
+    }
+
+    @Test
+    void itDoesNotAnswerNotModifiedToAnotherUser() {
+        User existingUser1 = userService.createUser(new UserCreateRequest("John Doe", "john.doe@example.com", "pass"));
+        User existingUser2 = userService.createUser(new UserCreateRequest("Carlos Rivera", "carlos.rivera@example.com", "pass"));
+        String eTag = fetchUser(getToken("carlos.rivera@example.com", "pass"), existingUser2.getId(), null).getResponse().getHeader("ETag");
+
+        MvcTestResult testResult = fetchUser(getToken("john.doe@example.com", "pass"), existingUser2.getId(), eTag);
+
+        assertThat(testResult).hasStatus(HttpStatus.FORBIDDEN);
+    }
+
+    @Test
+    void itRejectsAPatchBasedOnAStaleVersion() {
+        User existingUser = userService.createUser(new UserCreateRequest("John Doe", "john.doe@example.com", "pass"));
+        String token = getToken("john.doe@example.com", "pass");
+        String eTag = fetchUser(token, existingUser.getId(), null).getResponse().getHeader("ETag");
+
+        MvcTestResult firstUpdate = patchUser(token, existingUser.getId(), eTag, "Bob Smith");
+        MvcTestResult staleUpdate = patchUser(token, existingUser.getId(), eTag, "Rob Smith");
+
+        assertThat(firstUpdate).hasStatusOk();
+        assertThat(staleUpdate)
+                .hasStatus(HttpStatus.PRECONDITION_FAILED)
+                .bodyJson()
+                .convertTo(ProblemDetail.class)
+                .satisfies(error -> assertThat(error.getDetail()).isEqualTo("User %s has been modified".formatted(existingUser.getId())));
+        assertThat(userRepository.findById(existingUser.getId()).orElseThrow().getName()).isEqualTo("Bob Smith");
+
+        MvcTestResult currentUpdate = patchUser(token, existingUser.getId(), firstUpdate.getResponse().getHeader("ETag"), "Rob Smith");
+
+        assertThat(currentUpdate).hasStatusOk();
+        assertThat(userRepository.findById(existingUser.getId()).orElseThrow().getName()).isEqualTo("Rob Smith");
+    }
+
     @Test
     void itReturnsForbiddenWhenPatchingAnotherUsersData() {
         User existingUser1 = userService.createUser(new UserCreateRequest("John Doe", "john.doe@example.com", "pass"));
@@ -199,7 +293,7 @@ public class UserControllerIntegrationTests {
     @Test
     void itReturnsNotFoundWhenPatchingNonExistingUser() {
         userService.createUser(new UserCreateRequest("test user", "testuser@example.com", "pass"));
-        var nonExistentUserId = 42;
+        var nonExistentUserId = 42_000_000L; // ids of the shared test database stay far below
         String newUserName = "Bob Smith"; // let's assume we allow to change name
         String newUserDetails = "{\"name\": \"%s\"}".formatted(newUserName);
 
@@ -216,7 +310,7 @@ public class UserControllerIntegrationTests {
                 .bodyJson()
                 .convertTo(ProblemDetail.class)
                 .satisfies(error -> {
-                    assertThat(error.getDetail()).isEqualTo("User 42 not found");
+                    assertThat(error.getDetail()).isEqualTo("User 42000000 not found");
                 });
     }
 
@@ -271,6 +365,38 @@ public class UserControllerIntegrationTests {
                 });
     }
 
+    private MvcTestResult fetchUser(String token, Long userId, String ifNoneMatch) {
+        var request = mockMvcTester
+                .get()
+                .uri("/v1/users/{userId}", userId)
+                .header("Authorization", "Bearer " + token);
+        if (ifNoneMatch != null) {
+            request.header("If-None-Match", ifNoneMatch);
+        }
+        return request.exchange();
+    }
+
+    private MvcTestResult patchUser(String token, Long userId, String ifMatch, String name) {
+        var request = mockMvcTester
+                .patch()
+                .uri("/v1/users/{userId}", userId)
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\": \"%s\"}".formatted(name));
+        if (ifMatch != null) {
+            request.header("If-Match", ifMatch);
+        }
+        return request.exchange();
+    }
+
+    private String getContent(MvcTestResult testResult) {
+        try {
+            return testResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private String getToken(String email, String password) {
 
         MvcTestResult authResult = mockMvcTester
@@ -0,0 +1,150 @@
+package com.github.kisilko.eagle_bank.user;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.assertj.MockMvcTester;
+import org.springframework.test.web.servlet.assertj.MvcTestResult;
+
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class UserImportControllerIntegrationTests {
+
+    private final MockMvcTester mockMvcTester;
+    private final UserService userService;
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    public UserImportControllerIntegrationTests(@Autowired MockMvcTester mockMvcTester,
+                                                @Autowired UserService userService,
+                                                @Autowired UserRepository userRepository,
+                                                @Autowired PasswordEncoder passwordEncoder) {
+        this.mockMvcTester = mockMvcTester;
+        this.userService = userService;
+        this.userRepository = userRepository;
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Test
+    void itImportsUsersAndReportsEachLine() {
+        userRepository.save(User.builder()
+                .name("Import Admin")
+                .email("import.admin@example.com")
+                .password(passwordEncoder.encode("pass123"))
+                .roles(Set.of(Role.ADMIN))
+                .build());
+        userService.createUser(new UserCreateRequest("Existing User", "existing.user@example.com", "pass123"));
+        String users = """
+                {"name": "Lena Brooks", "email": "lena.brooks@example.com", "password": "pass123"}
+                {"name": "No Password", "email": "no.password@example.com"}
+
+                {"name": "Existing User", "email": "existing.user@example.com", "password": "pass123"}
+                {"name": "Lena Twin", "email": "lena.brooks@example.com", "password": "pass123"}
+                {"name": "Broken
+                {"name": "Ravi Kumar", "email": "ravi.kumar@example.com", "password": "pass123"}
+                """;
+
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/users:import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Authorization", "Bearer " + getToken("import.admin@example.com", "pass123"))
+                .content(users)
+                .exchange();
+
+        assertThat(testResult).hasStatusOk();
+        List<String> results = getContent(testResult).lines().toList();
+        assertThat(results).hasSize(6);
+        assertThat(results.stream().map(result -> JsonPath.<Integer>read(result, "$.line")))
+                .containsExactly(1, 2, 4, 5, 6, 7);
+        assertThat(results.stream().map(result -> JsonPath.<Integer>read(result, "$.status")))
+                .containsExactly(201, 400, 409, 409, 400, 201);
+        assertThat(JsonPath.<String>read(results.get(1), "$.errors[0]")).isEqualTo("Missing required field: password");
+        assertThat(userRepository.findByEmail("lena.brooks@example.com")).get()
+                .extracting(User::getName).isEqualTo("Lena Brooks");
+        assertThat(userRepository.findByEmail("ravi.kumar@example.com")).isPresent();
+    }
+
+    @Test
+    void itRejectsANullLineAndImportsTheRest() {
+        userRepository.save(User.builder()
+                .name("Null Admin")
+                .email("null.admin@example.com")
+                .password(passwordEncoder.encode("pass123"))
+                .roles(Set.of(Role.ADMIN))
+                .build());
+        String users = """
+                null
+                {"name": "Maya Ortiz", "email": "maya.ortiz@example.com", "password": "pass123"}
+                """;
+
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/users:import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Authorization", "Bearer " + getToken("null.admin@example.com", "pass123"))
+                .content(users)
+                .exchange();
+
+        assertThat(testResult).hasStatusOk();
+        List<String> results = getContent(testResult).lines().toList();
+        assertThat(results.stream().map(result -> JsonPath.<Integer>read(result, "$.status")))
+                .containsExactly(400, 201);
+        assertThat(JsonPath.<String>read(results.getFirst(), "$.errors[0]")).isEqualTo("Missing user");
+        assertThat(userRepository.findByEmail("maya.ortiz@example.com")).isPresent();
+    }
+
+    @Test
+    void itReturnsForbiddenForUsersWithoutAdminAuthority() {
+        userService.createUser(new UserCreateRequest("Plain User", "plain.user@example.com", "pass123"));
+
+        MvcTestResult testResult = mockMvcTester
+                .post()
+                .uri("/v1/users:import")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("Authorization", "Bearer " + getToken("plain.user@example.com", "pass123"))
+                .content("""
+                        {"name": "Sam Reed", "email": "sam.reed@example.com", "password": "pass123"}
+                        """)
+                .exchange();
+
+        assertThat(testResult).hasStatus(HttpStatus.FORBIDDEN);
+        assertThat(userRepository.findByEmail("sam.reed@example.com")).isEmpty();
+    }
+
+    private String getContent(MvcTestResult testResult) {
+        try {
+            return testResult.getResponse().getContentAsString();
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private String getToken(String email, String password) {
+
+        MvcTestResult authResult = mockMvcTester
+                .post()
+                .uri("/v1/auth/login")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("""
+                        {
+                            "email": "%s",
+                            "password": "%s"
+                        }""".formatted(email, password)
+                )
+                .exchange();
+
+        return getContent(authResult);
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.kisilko.eagle_bank;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.user.Role;
+import com.github.kisilko.eagle_bank.user.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.hateoas.server.core.DelegatingLinkRelationProvider;
+import org.springframework.hateoas.server.core.EvoInflectorLinkRelationProvider;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HAL serialization of the response bodies returned by the user and account endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityModelSerializationBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private EntityModel<User> userModel;
+    private EntityModel<BankAccount> bankAccountModel;
+
+    @Setup
+    public void setUp() {
+        objectMapper.registerModule(new Jackson2HalModule());
+        objectMapper.setHandlerInstantiator(new Jackson2HalModule.HalHandlerInstantiator(
+                new DelegatingLinkRelationProvider(new AnnotationLinkRelationProvider(), new EvoInflectorLinkRelationProvider()),
+                CurieProvider.NONE,
+                MessageResolver.DEFAULTS_ONLY));
+
+        User user = User.builder()
+                .id(42L)
+                .name("Alice Johnson")
+                .email("alice.johnson@example.com")
+                .password("{bcrypt}$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z2XaHZb8dQsGQ1Qe8X0HFEcu")
+                .roles(Set.of(Role.USER))
+                .build();
+        userModel = EntityModel.of(user,
+                Link.of("http://localhost/v1/users/42").withSelfRel(),
+                Link.of("http://localhost/v1/users/42", "update"),
+                Link.of("http://localhost/v1/users/42", "delete"));
+
+        BankAccount bankAccount = BankAccount.builder()
+                .id(7L)
+                .userId(42L)
+                .accountType("SAVINGS")
+                .currency("USD")
+                .build();
+        bankAccountModel = EntityModel.of(bankAccount, Link.of("http://localhost/v1/accounts/7").withSelfRel());
+    }
+
+    @Benchmark
+    public byte[] serializeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(userModel);
+    }
+
+    @Benchmark
+    public byte[] serializeBankAccount() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(bankAccountModel);
+    }
+}
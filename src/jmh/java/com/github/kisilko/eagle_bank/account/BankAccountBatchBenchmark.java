@@ -0,0 +1,83 @@
+package com.github.kisilko.eagle_bank.account;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kisilko.eagle_bank.EagleBankApplication;
+import com.github.kisilko.eagle_bank.user.User;
+import com.github.kisilko.eagle_bank.user.UserCreateRequest;
+import com.github.kisilko.eagle_bank.user.UserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creating accounts one at a time, one transaction each as {@code POST /v1/accounts} does, against creating them in
+ * one call as {@code POST /v1/accounts:batch} does, on the application context with an in-memory H2 database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankAccountBatchBenchmark {
+
+    @Param({"500"})
+    private int accounts;
+
+    private ConfigurableApplicationContext context;
+    private BankAccountService bankAccountService;
+    private List<BankAccountCreateRequest> requests;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(EagleBankApplication.class)
+                .properties("server.port=0",
+                        "spring.datasource.url=jdbc:h2:mem:batch-benchmark",
+                        "audit.directory=build/jmh/audit",
+                        "spring.jpa.properties.ids.directory=build/jmh/ids",
+                        "logging.level.root=warn")
+                .run();
+        bankAccountService = context.getBean(BankAccountService.class);
+        User user = context.getBean(UserService.class)
+                .createUser(new UserCreateRequest("Bench Mark", "bench.mark@example.com", "pass123"));
+        BankAccountCreateRequest request = context.getBean(ObjectMapper.class).convertValue(
+                Map.of("userId", user.getId(), "accountType", "SAVINGS", "currency", "USD"), BankAccountCreateRequest.class);
+        requests = Collections.nCopies(accounts, request);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public BankAccount single() {
+        BankAccount last = null;
+        for (BankAccountCreateRequest request : requests) {
+            last = bankAccountService.createAccount(request);
+        }
+        return last;
+    }
+
+    @Benchmark
+    public List<Optional<BankAccount>> batch() {
+        return bankAccountService.createAccounts(requests);
+    }
+}
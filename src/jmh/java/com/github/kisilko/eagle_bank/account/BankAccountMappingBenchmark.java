@@ -0,0 +1,54 @@
+package com.github.kisilko.eagle_bank.account;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping cost per account creation: the generated {@link BankAccountMapper} against the
+ * STRICT {@link ModelMapper} previously used by {@link BankAccountService#createAccount}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankAccountMappingBenchmark {
+
+    private final BankAccountMapper bankAccountMapper = Mappers.getMapper(BankAccountMapper.class);
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    private BankAccountCreateRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT);
+        request = new ObjectMapper().readValue("""
+                {"userId": 42, "accountType": "SAVINGS", "currency": "USD"}""", BankAccountCreateRequest.class);
+    }
+
+    @Benchmark
+    public BankAccount generatedMapper() {
+        return bankAccountMapper.toBankAccount(request);
+    }
+
+    @Benchmark
+    public BankAccount modelMapper() {
+        return modelMapper.map(request, BankAccount.class);
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.kisilko.eagle_bank.account;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BankAccountModelAssemblerBenchmark {
+
+    private final BankAccountModelAssembler bankAccountModelAssembler = new BankAccountModelAssembler();
+
+    private BankAccount bankAccount;
+
+    @Setup
+    public void setUp() {
+        bankAccount = BankAccount.builder()
+                .id(7L)
+                .userId(42L)
+                .accountType("SAVINGS")
+                .currency("USD")
+                .build();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/v1/accounts/7")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public EntityModel<BankAccount> precompiledLinkTemplates() {
+        return bankAccountModelAssembler.toModel(bankAccount);
+    }
+
+    @Benchmark
+    public EntityModel<BankAccount> linkToMethodOn() {
+        var selfLink = linkTo(methodOn(BankAccountController.class).accountDetails(bankAccount.getId(), null)).withSelfRel();
+        return EntityModel.of(bankAccount, selfLink);
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.github.kisilko.eagle_bank.user.Role;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token issuing on login, and token verification in {@link JWTValidatorFilter} with and without the verified-token cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JWTBenchmark {
+
+    private static final String SECRET = "h3Qbjyj5kPvN6Pdkggib5fxC2sKWIP5t";
+
+    private final JWTService jwtService = new JWTService(SECRET, 86_400_000L);
+    private final JWTVerifier cachingVerifier = new JWTVerifier(SECRET, 10_000);
+    private final JWTVerifier nonCachingVerifier = new JWTVerifier(SECRET, 0);
+
+    private String token;
+
+    @Setup
+    public void setUp() {
+        token = jwtService.generateToken(42L, "alice.johnson@example.com", Role.USER.bit());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(42L, "alice.johnson@example.com", Role.USER.bit());
+    }
+
+    @Benchmark
+    public Authentication verifyCachedToken() {
+        return cachingVerifier.verify(token);
+    }
+
+    @Benchmark
+    public Authentication verifyUncachedToken() {
+        return nonCachingVerifier.verify(token);
+    }
+}
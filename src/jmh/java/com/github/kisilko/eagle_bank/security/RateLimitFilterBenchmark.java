@@ -0,0 +1,83 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of {@link RateLimitFilter} per request with 32 threads, each thread a client of its own or all of them
+ * one client, which makes every request contend on the same bucket. The limit is high enough to never reject.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(32)
+@Fork(1)
+public class RateLimitFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> {
+    };
+
+    @Param({"distinct", "shared"})
+    private String clients;
+
+    private final AtomicInteger threads = new AtomicInteger();
+    private RateLimitFilter filter;
+
+    @Setup
+    public void setUp() {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit(1_000_000_000L, Duration.ofSeconds(1), Integer.MAX_VALUE);
+        RateLimitProperties properties = new RateLimitProperties(true, 100_000, Duration.ofSeconds(30), limit,
+                List.of(new RateLimitProperties.Route("POST", "/v1/auth/login", limit), new RateLimitProperties.Route(null, "/healthcheck/**", null)));
+        filter = new RateLimitFilter(properties, new ObjectMapper(), new SimpleMeterRegistry());
+    }
+
+    @TearDown
+    public void tearDown() {
+        filter.shutdown();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+
+        private final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/users/42");
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+        @Setup
+        public void setUp(RateLimitFilterBenchmark benchmark) {
+            int thread = benchmark.threads.getAndIncrement();
+            request.setServletPath("/v1/users/42");
+            request.setRemoteAddr(benchmark.clients.equals("shared") ? "10.0.0.1" : "10.0.0." + thread);
+        }
+    }
+
+    @Benchmark
+    public MockHttpServletResponse filter(Client client) throws ServletException, IOException {
+        filter.doFilter(client.request, client.response, NO_OP_CHAIN);
+        return client.response;
+    }
+}
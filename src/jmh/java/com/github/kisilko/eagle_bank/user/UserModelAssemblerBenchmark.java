@@ -0,0 +1,72 @@
+package com.github.kisilko.eagle_bank.user;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Compares the precompiled link templates of {@link UserModelAssembler} with the previous
+ * {@code linkTo(methodOn(...))} implementation. Run with the gc profiler to see allocation per call.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserModelAssemblerBenchmark {
+
+    private final UserModelAssembler userModelAssembler = new UserModelAssembler();
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = User.builder()
+                .id(42L)
+                .name("Alice Johnson")
+                .email("alice.johnson@example.com")
+                .roles(Set.of(Role.USER))
+                .build();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest("GET", "/v1/users/42")));
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public EntityModel<User> precompiledLinkTemplates() {
+        return userModelAssembler.toModel(user);
+    }
+
+    @Benchmark
+    public EntityModel<User> linkToMethodOn() {
+        var controller = UserController.class;
+
+        var selfLink = linkTo(methodOn(controller).userDetails(user.getId(), null)).withSelfRel();
+        var updateLink = linkTo(methodOn(controller).updateUserDetails(user.getId(), null, null)).withRel("update");
+        var deleteLink = linkTo(methodOn(controller).deleteUser(user.getId())).withRel("delete");
+
+        return EntityModel.of(user, selfLink, updateLink, deleteLink);
+    }
+}
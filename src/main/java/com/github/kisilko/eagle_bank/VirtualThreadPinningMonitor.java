@@ -0,0 +1,97 @@
+package com.github.kisilko.eagle_bank;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Streams {@code jdk.VirtualThreadPinned} JFR events while the application runs on virtual threads.
+ * Every new pinning site is logged once when it is first seen, and a summary of all sites is logged at shutdown.
+ */
+@Slf4j
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "diagnostics.virtual-thread-pinning.enabled", matchIfMissing = true)
+class VirtualThreadPinningMonitor {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final String APPLICATION_PACKAGE = "com.github.kisilko.eagle_bank";
+
+    private final Duration threshold;
+    private final Map<String, LongAdder> pinnedSites = new ConcurrentHashMap<>();
+
+    private RecordingStream recordingStream;
+
+    VirtualThreadPinningMonitor(@Value("${diagnostics.virtual-thread-pinning.threshold-ms:10}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+    }
+
+    @PostConstruct
+    void start() {
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        recordingStream.onEvent(PINNED_EVENT, this::onPinned);
+        recordingStream.startAsync();
+        log.info("Running on virtual threads, reporting carrier pinning longer than {} ms", threshold.toMillis());
+    }
+
+    @PreDestroy
+    void stop() {
+        recordingStream.close();
+        Map<String, Long> summary = pinnedSites();
+        if (summary.isEmpty()) {
+            log.info("No virtual thread pinning longer than {} ms observed", threshold.toMillis());
+        } else {
+            log.warn("Virtual thread pinning summary (site=count): {}", summary);
+        }
+    }
+
+    public Map<String, Long> pinnedSites() {
+        Map<String, Long> summary = new TreeMap<>();
+        pinnedSites.forEach((site, count) -> summary.put(site, count.sum()));
+        return summary;
+    }
+
+    private void onPinned(RecordedEvent event) {
+        String site = pinnedSite(event.getStackTrace());
+        LongAdder count = pinnedSites.get(site);
+        if (count == null) {
+            LongAdder created = new LongAdder();
+            count = pinnedSites.putIfAbsent(site, created);
+            if (count == null) {
+                count = created;
+                log.warn("Virtual thread pinned its carrier for {} ms at {}", event.getDuration().toMillis(), site);
+            }
+        }
+        count.increment();
+    }
+
+    private static String pinnedSite(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return "<unknown>";
+        }
+
+        List<RecordedFrame> frames = stackTrace.getFrames();
+        RecordedFrame site = frames.stream()
+                .filter(frame -> frame.isJavaFrame() && frame.getMethod().getType().getName().startsWith(APPLICATION_PACKAGE))
+                .findFirst()
+                .orElse(frames.getFirst());
+        return "%s.%s:%s".formatted(site.getMethod().getType().getName(), site.getMethod().getName(), site.getLineNumber());
+    }
+}
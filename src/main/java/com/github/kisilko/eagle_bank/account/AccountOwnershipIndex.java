@@ -0,0 +1,60 @@
+package com.github.kisilko.eagle_bank.account;
+
+import com.github.kisilko.eagle_bank.cache.BoundedCache;
+import com.github.kisilko.eagle_bank.cache.CacheMetrics;
+import com.github.kisilko.eagle_bank.sharding.AccountShards;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+/**
+ * Owner of each account, so an account can be authorized without being loaded. The owner of an account never
+ * changes, so entries do not expire; they are added when accounts are created, and on a miss looked up on every
+ * shard, since the shard of an account follows from its owner.
+ */
+@Component
+public class AccountOwnershipIndex implements MeterBinder {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final AccountShards accountShards;
+    private final BoundedCache<Long, Long> ownersByAccountId;
+
+    AccountOwnershipIndex(BankAccountRepository bankAccountRepository,
+                          AccountShards accountShards,
+                          @Value("${accounts.ownership-index.max-size:100000}") int maxSize) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.accountShards = accountShards;
+        this.ownersByAccountId = new BoundedCache<>(maxSize);
+    }
+
+    /**
+     * @return the id of the user owning the account, or empty if there is no such account
+     */
+    public Optional<Long> ownerOf(Long accountId) {
+        Long ownerId = ownersByAccountId.get(accountId);
+        if (ownerId != null) {
+            return Optional.of(ownerId);
+        }
+
+        for (String shard : accountShards.shards()) {
+            Optional<Long> owner = accountShards.onShard(shard, () -> bankAccountRepository.findUserIdById(accountId));
+            if (owner.isPresent()) {
+                ownersByAccountId.put(accountId, owner.get());
+                return owner;
+            }
+        }
+        return Optional.empty();
+    }
+
+    void put(BankAccount bankAccount) {
+        ownersByAccountId.put(bankAccount.getId(), bankAccount.getUserId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMetrics.bind(registry, "accounts.owners", ownersByAccountId);
+    }
+}
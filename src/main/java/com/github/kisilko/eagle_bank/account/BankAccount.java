@@ -1,23 +1,46 @@
 package com.github.kisilko.eagle_bank.account;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.github.kisilko.eagle_bank.sharding.SnowflakeId;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.math.BigDecimal;
 
 @Entity
-@Table(name = "accounts")
+@Table(
+        name = "accounts",
+        indexes = @Index(name = "idx_accounts_user_id_id", columnList = "user_id, id")
+)
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = BankAccount.CACHE_REGION)
+@Relation(itemRelation = "account", collectionRelation = "accounts")
 @Data
 @Builder
 @AllArgsConstructor
 @NoArgsConstructor
 public class BankAccount {
 
+    static final String CACHE_REGION = "accounts";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @SnowflakeId
     private Long id;
 
+    @Column(name = "user_id")
     private Long userId;
 
     private String accountType;
 
     private String currency;
+
+    @Builder.Default
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance = BigDecimal.ZERO;
+
+    @Version
+    @JsonIgnore
+    private Long version;
 }
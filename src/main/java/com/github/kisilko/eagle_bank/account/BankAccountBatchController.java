@@ -0,0 +1,110 @@
+package com.github.kisilko.eagle_bank.account;
+
+import com.github.kisilko.eagle_bank.security.OwnershipAuthorizer;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Creates many accounts in one request. Each item is validated on its own and gets its own result;
+ * valid items are saved in chunks, one transaction per chunk and shard, so a failing chunk or shard does not undo
+ * the others and only its own items are reported as not saved.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/v1/accounts:batch")
+class BankAccountBatchController {
+
+    private final BankAccountService bankAccountService;
+    private final BankAccountModelAssembler bankAccountModelAssembler;
+    private final Validator validator;
+    private final OwnershipAuthorizer ownershipAuthorizer;
+    private final int maxSize;
+    private final int chunkSize;
+
+    BankAccountBatchController(BankAccountService bankAccountService,
+                               BankAccountModelAssembler bankAccountModelAssembler,
+                               Validator validator,
+                               OwnershipAuthorizer ownershipAuthorizer,
+                               @Value("${accounts.batch.max-size:10000}") int maxSize,
+                               @Value("${accounts.batch.chunk-size:500}") int chunkSize) {
+        this.bankAccountService = bankAccountService;
+        this.bankAccountModelAssembler = bankAccountModelAssembler;
+        this.validator = validator;
+        this.ownershipAuthorizer = ownershipAuthorizer;
+        this.maxSize = maxSize;
+        this.chunkSize = chunkSize;
+    }
+
+    @PostMapping
+    public ResponseEntity<BankAccountBatchResponse> createAccounts(@RequestBody List<BankAccountCreateRequest> bankAccountCreateRequests) {
+        if (bankAccountCreateRequests.size() > maxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most %s accounts per batch".formatted(maxSize));
+        }
+
+        BankAccountBatchResult[] results = new BankAccountBatchResult[bankAccountCreateRequests.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        List<BankAccountCreateRequest> validRequests = new ArrayList<>();
+        for (int i = 0; i < bankAccountCreateRequests.size(); i++) {
+            List<String> errors = validate(bankAccountCreateRequests.get(i));
+            if (!errors.isEmpty()) {
+                results[i] = BankAccountBatchResult.rejected(i, HttpStatus.BAD_REQUEST, errors);
+            } else if (!ownershipAuthorizer.isCurrentUser(bankAccountCreateRequests.get(i).getUserId())) {
+                results[i] = BankAccountBatchResult.rejected(i, HttpStatus.FORBIDDEN, List.of("Accounts can only be created for yourself"));
+            } else {
+                validIndexes.add(i);
+                validRequests.add(bankAccountCreateRequests.get(i));
+            }
+        }
+
+        int created = 0;
+        for (int from = 0; from < validRequests.size(); from += chunkSize) {
+            int to = Math.min(from + chunkSize, validRequests.size());
+            try {
+                List<Optional<BankAccount>> newBankAccounts = bankAccountService.createAccounts(validRequests.subList(from, to));
+                for (int i = from; i < to; i++) {
+                    int index = validIndexes.get(i);
+                    Optional<BankAccount> newBankAccount = newBankAccounts.get(i - from);
+                    if (newBankAccount.isPresent()) {
+                        results[index] = BankAccountBatchResult.created(index, bankAccountModelAssembler.toModel(newBankAccount.get()));
+                        created++;
+                    } else {
+                        results[index] = BankAccountBatchResult.rejected(index, HttpStatus.INTERNAL_SERVER_ERROR, List.of("Account could not be saved"));
+                    }
+                }
+            } catch (DataAccessException e) {
+                log.warn("Could not save accounts {} to {} of a batch", validIndexes.get(from), validIndexes.get(to - 1), e);
+                for (int i = from; i < to; i++) {
+                    int index = validIndexes.get(i);
+                    results[index] = BankAccountBatchResult.rejected(index, HttpStatus.INTERNAL_SERVER_ERROR, List.of("Account could not be saved"));
+                }
+            }
+        }
+
+        return ResponseEntity.ok(new BankAccountBatchResponse(created, results.length - created, Arrays.asList(results)));
+    }
+
+    private List<String> validate(BankAccountCreateRequest bankAccountCreateRequest) {
+        if (bankAccountCreateRequest == null) {
+            return List.of("Missing account");
+        }
+        return validator.validate(bankAccountCreateRequest).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+    }
+}
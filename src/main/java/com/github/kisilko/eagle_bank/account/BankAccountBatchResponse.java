@@ -0,0 +1,23 @@
+package com.github.kisilko.eagle_bank.account;
+
+import lombok.Getter;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.util.List;
+
+/**
+ * A representation model itself, so the response is rendered as HAL along with the accounts of its results.
+ */
+@Getter
+class BankAccountBatchResponse extends RepresentationModel<BankAccountBatchResponse> {
+
+    private final int created;
+    private final int rejected;
+    private final List<BankAccountBatchResult> results;
+
+    BankAccountBatchResponse(int created, int rejected, List<BankAccountBatchResult> results) {
+        this.created = created;
+        this.rejected = rejected;
+        this.results = results;
+    }
+}
@@ -0,0 +1,19 @@
+package com.github.kisilko.eagle_bank.account;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record BankAccountBatchResult(int index, int status, EntityModel<BankAccount> account, List<String> errors) {
+
+    static BankAccountBatchResult created(int index, EntityModel<BankAccount> account) {
+        return new BankAccountBatchResult(index, HttpStatus.CREATED.value(), account, null);
+    }
+
+    static BankAccountBatchResult rejected(int index, HttpStatus status, List<String> errors) {
+        return new BankAccountBatchResult(index, status.value(), null, errors);
+    }
+}
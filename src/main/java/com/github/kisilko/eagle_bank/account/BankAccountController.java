@@ -1,28 +1,64 @@
 package com.github.kisilko.eagle_bank.account;
 
+import com.github.kisilko.eagle_bank.cache.VersionETags;
+import com.github.kisilko.eagle_bank.security.OwnershipAuthorizer;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/v1/accounts")
 @RequiredArgsConstructor
 class BankAccountController {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final BankAccountService bankAccountService;
     private final BankAccountModelAssembler bankAccountModelAssembler;
+    private final OwnershipAuthorizer ownershipAuthorizer;
+
+    @GetMapping
+    public ResponseEntity<CollectionModel<EntityModel<BankAccount>>> listAccounts(@RequestParam(required = false) Long userId,
+                                                                                  @RequestParam(required = false) Long after,
+                                                                                  @RequestParam(defaultValue = "20") int size) {
+        Long ownerId = userId != null ? userId : ownershipAuthorizer.currentUserId();
+        ownershipAuthorizer.checkUser(ownerId);
+        BankAccountPage page = bankAccountService.findByUserId(ownerId, after, Math.clamp(size, 1, MAX_PAGE_SIZE));
+        return ResponseEntity.ok(bankAccountModelAssembler.toPageModel(page));
+    }
 
     @GetMapping("{accountId}")
-    public ResponseEntity<EntityModel<BankAccount>> accountDetails(@PathVariable Long accountId) {
+    public ResponseEntity<EntityModel<BankAccount>> accountDetails(@PathVariable Long accountId,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        ownershipAuthorizer.checkAccount(accountId);
+
+        // every posting bumps the version, so it also tells whether the balance changed
+        if (ifNoneMatch != null) {
+            Optional<Long> version = bankAccountService.findVersionById(accountId);
+            if (version.isPresent() && VersionETags.matches(ifNoneMatch, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(VersionETags.format(version.get()))
+                        .build();
+            }
+        }
+
         BankAccount bankAccount = bankAccountService.findById(accountId)
                 .orElseThrow(() -> new BankAccountNotFoundException(accountId));
-        return ResponseEntity.ok(bankAccountModelAssembler.toModel(bankAccount));
+        return ResponseEntity.ok()
+                .eTag(VersionETags.format(bankAccount.getVersion()))
+                .body(bankAccountModelAssembler.toModel(bankAccount));
     }
 
     @PostMapping
     public ResponseEntity<EntityModel<BankAccount>> createAccount(@Valid @RequestBody BankAccountCreateRequest bankAccountCreateRequest) {
+        ownershipAuthorizer.checkUser(bankAccountCreateRequest.getUserId());
         BankAccount newBankAccount = bankAccountService.createAccount(bankAccountCreateRequest);
         EntityModel<BankAccount> accountModel = bankAccountModelAssembler.toModel(newBankAccount);
         return ResponseEntity.created(accountModel.getRequiredLink("self").toUri())
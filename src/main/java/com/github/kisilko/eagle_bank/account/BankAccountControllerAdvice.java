@@ -0,0 +1,17 @@
+package com.github.kisilko.eagle_bank.account;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice(assignableTypes = {BankAccountController.class})
+class BankAccountControllerAdvice {
+
+    @ExceptionHandler(BankAccountNotFoundException.class)
+    public ResponseEntity<ProblemDetail> handleNotFound(BankAccountNotFoundException ex) {
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(body);
+    }
+}
@@ -0,0 +1,15 @@
+package com.github.kisilko.eagle_bank.account;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+interface BankAccountMapper {
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "balance", ignore = true)
+    @Mapping(target = "version", ignore = true)
+    BankAccount toBankAccount(BankAccountCreateRequest bankAccountCreateRequest);
+}
@@ -1,23 +1,34 @@
 package com.github.kisilko.eagle_bank.account;
 
+import com.github.kisilko.eagle_bank.hateoas.LinkTemplate;
+import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @Component
 class BankAccountModelAssembler implements RepresentationModelAssembler<BankAccount, EntityModel<BankAccount>> {
 
+    private final LinkTemplate selfLink = LinkTemplate.of(BankAccountController.class, "accountDetails");
+    private final LinkTemplate listLink = LinkTemplate.of(BankAccountController.class, "listAccounts");
+
     @Override
     public EntityModel<BankAccount> toModel(BankAccount bankAccount) {
-        var controller = BankAccountController.class;
+        return EntityModel.of(bankAccount, selfLink.link(IanaLinkRelations.SELF, bankAccount.getId()));
+    }
 
-        var selfLink = linkTo(methodOn(controller).accountDetails(bankAccount.getId())).withSelfRel();
-//        var updateLink = linkTo(methodOn(controller).updateAccountDetails(user.getId(), null)).withRel("update");
-//        var deleteLink = linkTo(methodOn(controller).deleteAccount(user.getId())).withRel("delete");
+    CollectionModel<EntityModel<BankAccount>> toPageModel(BankAccountPage page) {
+        String pageHref = listLink.expand() + "?userId=" + page.userId() + "&size=" + page.size();
 
-        return EntityModel.of(bankAccount, selfLink /*, updateLink, deleteLink */);
+        CollectionModel<EntityModel<BankAccount>> pageModel = CollectionModel.of(page.accounts().stream()
+                .map(this::toModel)
+                .toList());
+        pageModel.add(Link.of(page.afterId() == null ? pageHref : pageHref + "&after=" + page.afterId(), IanaLinkRelations.SELF));
+        if (page.hasNext()) {
+            pageModel.add(Link.of(pageHref + "&after=" + page.lastId(), IanaLinkRelations.NEXT));
+        }
+        return pageModel;
     }
 }
@@ -0,0 +1,16 @@
+package com.github.kisilko.eagle_bank.account;
+
+import java.util.List;
+
+record BankAccountPage(
+        Long userId,
+        Long afterId,
+        List<BankAccount> accounts,
+        boolean hasNext,
+        int size
+) {
+
+    Long lastId() {
+        return accounts.isEmpty() ? null : accounts.getLast().getId();
+    }
+}
@@ -1,6 +1,19 @@
 package com.github.kisilko.eagle_bank.account;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface BankAccountRepository extends JpaRepository<BankAccount, Long> {
+
+    List<BankAccount> findByUserIdAndIdGreaterThanOrderByIdAsc(Long userId, Long afterId, Limit limit);
+
+    @Query("select a.userId from BankAccount a where a.id = :id")
+    Optional<Long> findUserIdById(Long id);
+
+    @Query("select a.version from BankAccount a where a.id = :id")
+    Optional<Long> findVersionById(Long id);
 }
@@ -1,24 +1,121 @@
 package com.github.kisilko.eagle_bank.account;
 
-import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import com.github.kisilko.eagle_bank.audit.AuditEventType;
+import com.github.kisilko.eagle_bank.audit.AuditLog;
+import com.github.kisilko.eagle_bank.sharding.AccountShards;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Accounts are kept on the shard of their owner, see {@link AccountShards}, so every operation first finds the
+ * owner and then runs its transaction on that shard.
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class BankAccountService {
 
     private final BankAccountRepository bankAccountRepository;
-    private final ModelMapper modelMapper;
+    private final BankAccountMapper bankAccountMapper;
+    private final AccountOwnershipIndex accountOwnershipIndex;
+    private final AccountShards accountShards;
+    private final AuditLog auditLog;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+
+    BankAccountService(BankAccountRepository bankAccountRepository,
+                       BankAccountMapper bankAccountMapper,
+                       AccountOwnershipIndex accountOwnershipIndex,
+                       AccountShards accountShards,
+                       AuditLog auditLog,
+                       PlatformTransactionManager transactionManager) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.bankAccountMapper = bankAccountMapper;
+        this.accountOwnershipIndex = accountOwnershipIndex;
+        this.accountShards = accountShards;
+        this.auditLog = auditLog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
 
     public BankAccount createAccount(BankAccountCreateRequest bankAccountCreateRequest) {
-        BankAccount newBankAccount = modelMapper.map(bankAccountCreateRequest, BankAccount.class);
-        return bankAccountRepository.save(newBankAccount);
+        BankAccount newBankAccount = bankAccountMapper.toBankAccount(bankAccountCreateRequest);
+        BankAccount savedBankAccount = accountShards.onShardOf(newBankAccount.getUserId(),
+                () -> bankAccountRepository.save(newBankAccount));
+        accountOwnershipIndex.put(savedBankAccount);
+        auditLog.record(AuditEventType.ACCOUNT_CREATED, savedBankAccount.getId(), "user=" + savedBankAccount.getUserId());
+        return savedBankAccount;
+    }
+
+    /**
+     * Saves the accounts in one transaction per shard of their owners. A shard that fails does not undo the shards
+     * committed before it, so the result has every account that was saved, in request order, and is empty for the
+     * accounts of a failed shard.
+     */
+    public List<Optional<BankAccount>> createAccounts(List<BankAccountCreateRequest> bankAccountCreateRequests) {
+        List<BankAccount> newBankAccounts = bankAccountCreateRequests.stream()
+                .map(bankAccountMapper::toBankAccount)
+                .toList();
+
+        List<Optional<BankAccount>> savedBankAccounts = new ArrayList<>(Collections.nCopies(newBankAccounts.size(), Optional.empty()));
+        try (AccountShards.UserLocks ignored = accountShards.lockUsers(newBankAccounts.stream().map(BankAccount::getUserId).toList())) {
+            Map<String, List<Integer>> indexesByShard = new LinkedHashMap<>();
+            for (int i = 0; i < newBankAccounts.size(); i++) {
+                indexesByShard.computeIfAbsent(accountShards.shardOf(newBankAccounts.get(i).getUserId()), shard -> new ArrayList<>()).add(i);
+            }
+            indexesByShard.forEach((shard, indexes) -> {
+                List<BankAccount> saved;
+                try {
+                    saved = accountShards.onShard(shard, () -> transactionTemplate.execute(status ->
+                            bankAccountRepository.saveAll(indexes.stream().map(newBankAccounts::get).toList())));
+                } catch (DataAccessException | TransactionException e) {
+                    log.warn("Could not save {} accounts on shard {}", indexes.size(), shard, e);
+                    return;
+                }
+                // committed, so the accounts exist whatever happens to the next shard
+                for (int i = 0; i < indexes.size(); i++) {
+                    BankAccount savedBankAccount = saved.get(i);
+                    accountOwnershipIndex.put(savedBankAccount);
+                    auditLog.record(AuditEventType.ACCOUNT_CREATED, savedBankAccount.getId(), "user=" + savedBankAccount.getUserId());
+                    savedBankAccounts.set(indexes.get(i), Optional.of(savedBankAccount));
+                }
+            });
+        }
+        return savedBankAccounts;
     }
 
     public Optional<BankAccount> findById(Long accountId) {
-        return bankAccountRepository.findById(accountId);
+        return accountOwnershipIndex.ownerOf(accountId)
+                .flatMap(userId -> accountShards.onShardOf(userId,
+                        () -> readOnlyTransaction.execute(status -> bankAccountRepository.findById(accountId))));
+    }
+
+    /**
+     * Version of the account for conditional requests, read without loading the account.
+     */
+    public Optional<Long> findVersionById(Long accountId) {
+        return accountOwnershipIndex.ownerOf(accountId)
+                .flatMap(userId -> accountShards.onShardOf(userId,
+                        () -> readOnlyTransaction.execute(status -> bankAccountRepository.findVersionById(accountId))));
+    }
+
+    public BankAccountPage findByUserId(Long userId, Long afterId, int size) {
+        List<BankAccount> accounts = accountShards.onShardOf(userId, () -> readOnlyTransaction.execute(status ->
+                bankAccountRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId == null ? 0L : afterId, Limit.of(size + 1))));
+
+        boolean hasNext = accounts.size() > size;
+        return new BankAccountPage(userId, afterId, hasNext ? accounts.subList(0, size) : accounts, hasNext, size);
     }
 }
@@ -0,0 +1,17 @@
+package com.github.kisilko.eagle_bank.audit;
+
+import java.time.Instant;
+
+/**
+ * @param actor     name of the authenticated caller, or {@code anonymous}
+ * @param subjectId id of the user or account the event is about, or 0 if unknown
+ * @param detail    free text, such as the email of a login attempt; may be {@code null}
+ */
+record AuditEvent(long timestampMillis, AuditEventType type, String actor, long subjectId, String detail) {
+
+    @Override
+    public String toString() {
+        return "%s %s actor=%s subject=%s%s".formatted(Instant.ofEpochMilli(timestampMillis), type, actor, subjectId,
+                detail == null ? "" : " detail=" + detail);
+    }
+}
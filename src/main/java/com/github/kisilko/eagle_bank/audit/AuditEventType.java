@@ -0,0 +1,13 @@
+package com.github.kisilko.eagle_bank.audit;
+
+/**
+ * Kinds of audited events. The ordinal is written to the audit log, so new types must only be appended.
+ */
+public enum AuditEventType {
+    LOGIN_SUCCEEDED,
+    LOGIN_FAILED,
+    USER_CREATED,
+    USER_UPDATED,
+    USER_DELETED,
+    ACCOUNT_CREATED
+}
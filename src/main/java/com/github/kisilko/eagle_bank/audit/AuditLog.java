@@ -0,0 +1,174 @@
+package com.github.kisilko.eagle_bank.audit;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Append-only audit trail of security-relevant events.
+ * <p>
+ * {@link #record} only puts the event into a lock-free ring buffer, so callers never wait for the disk. A single
+ * writer thread drains the buffer into memory-mapped segment files and forces them once a batch of records has
+ * been written or the sync interval has passed, whichever comes first; many events share one sync. An event
+ * recorded inside a database transaction is only buffered once that transaction commits.
+ * <p>
+ * If the buffer stays full for longer than the offer timeout the event is dropped and counted in
+ * {@code audit.events.dropped}. Segments can be printed and verified with {@link AuditLogReader}.
+ */
+@Slf4j
+@Component
+public class AuditLog implements MeterBinder {
+
+    private static final String ANONYMOUS = "anonymous";
+    private static final long OFFER_BACKOFF_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final MpscRingBuffer<AuditEvent> buffer;
+    private final AuditSegmentWriter segmentWriter;
+    private final int syncBatchSize;
+    private final long syncIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final Thread writer;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder syncs = new LongAdder();
+
+    private volatile boolean running = true;
+
+    AuditLog(@Value("${audit.directory:audit}") Path directory,
+             @Value("${audit.segment-size-mb:64}") int segmentSizeMegabytes,
+             @Value("${audit.buffer-capacity:65536}") int bufferCapacity,
+             @Value("${audit.sync.batch-size:512}") int syncBatchSize,
+             @Value("${audit.sync.interval-ms:20}") long syncIntervalMillis,
+             @Value("${audit.offer-timeout-ms:100}") long offerTimeoutMillis) throws IOException {
+        this.buffer = new MpscRingBuffer<>(bufferCapacity);
+        this.segmentWriter = new AuditSegmentWriter(directory, segmentSizeMegabytes << 20);
+        this.syncBatchSize = syncBatchSize;
+        this.syncIntervalNanos = TimeUnit.MILLISECONDS.toNanos(syncIntervalMillis);
+        this.offerTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(offerTimeoutMillis);
+        this.writer = Thread.ofPlatform().name("audit-writer").daemon().start(this::write);
+    }
+
+    /**
+     * @param subjectId id of the user or account the event is about
+     * @param detail    optional free text, such as the email of a login attempt
+     */
+    public void record(AuditEventType type, Long subjectId, String detail) {
+        AuditEvent event = new AuditEvent(System.currentTimeMillis(), type, actor(), subjectId == null ? 0 : subjectId, detail);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(event);
+                }
+            });
+        } else {
+            offer(event);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("audit.events.written", written, LongAdder::sum)
+                .description("Audit events appended to the log")
+                .register(registry);
+        FunctionCounter.builder("audit.events.dropped", dropped, LongAdder::sum)
+                .description("Audit events dropped because the buffer stayed full")
+                .register(registry);
+        FunctionCounter.builder("audit.syncs", syncs, LongAdder::sum)
+                .description("Forces of the audit log to the storage device")
+                .register(registry);
+        Gauge.builder("audit.events.buffered", buffer, MpscRingBuffer::size)
+                .description("Audit events waiting to be written")
+                .register(registry);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join();
+    }
+
+    private void offer(AuditEvent event) {
+        long deadline = System.nanoTime() + offerTimeoutNanos;
+        while (!buffer.offer(event)) {
+            if (!running || System.nanoTime() - deadline > 0) {
+                dropped.increment();
+                log.error("Audit buffer is full, dropped {}", event);
+                return;
+            }
+            LockSupport.parkNanos(OFFER_BACKOFF_NANOS);
+        }
+    }
+
+    private void write() {
+        int unsynced = 0;
+        long lastSync = System.nanoTime();
+        while (true) {
+            boolean stopping = !running;
+            int drained = buffer.drain(this::append, syncBatchSize);
+            unsynced += drained;
+
+            long now = System.nanoTime();
+            if (unsynced > 0 && (unsynced >= syncBatchSize || now - lastSync >= syncIntervalNanos)) {
+                force();
+                unsynced = 0;
+                lastSync = now;
+            }
+            if (drained == 0) {
+                if (stopping) {
+                    break;
+                }
+                LockSupport.parkNanos(Math.min(syncIntervalNanos, TimeUnit.MILLISECONDS.toNanos(1)));
+            }
+        }
+        try {
+            segmentWriter.close();
+        } catch (RuntimeException e) {
+            log.error("Could not seal the audit log", e);
+        }
+    }
+
+    private void append(AuditEvent event) {
+        try {
+            segmentWriter.append(event);
+            written.increment();
+        } catch (RuntimeException e) {
+            dropped.increment();
+            log.error("Could not append {} to the audit log", event, e);
+        }
+    }
+
+    private void force() {
+        try {
+            segmentWriter.force();
+            syncs.increment();
+        } catch (RuntimeException e) {
+            log.error("Could not sync the audit log", e);
+        }
+    }
+
+    private static String actor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            return ANONYMOUS;
+        }
+        return authentication.getName();
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.kisilko.eagle_bank.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Offline tool that prints the audit log and verifies its checksums, e.g. {@code gradle auditRead -Paudit.dir=audit}.
+ * Exits with status 1 if any segment is corrupt.
+ */
+public final class AuditLogReader {
+
+    /**
+     * @param sealed whether the segment ends with a trailer; the segment being written, or the last one before a
+     *               crash, is not sealed
+     * @param error  why the segment is corrupt, or {@code null} if it is valid
+     */
+    record SegmentSummary(Path path, long records, boolean sealed, String error) {
+    }
+
+    private AuditLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path directory = Path.of(args.length > 0 ? args[0] : "audit");
+        boolean valid = true;
+        for (Path segment : segments(directory)) {
+            SegmentSummary summary = readSegment(segment, System.out::println);
+            System.out.printf("# %s: %s records, %s, %s%n", summary.path().getFileName(), summary.records(),
+                    summary.sealed() ? "sealed" : "open", summary.error() == null ? "valid" : "CORRUPT: " + summary.error());
+            valid &= summary.error() == null;
+        }
+        if (!valid) {
+            System.exit(1);
+        }
+    }
+
+    static List<Path> segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> AuditSegmentWriter.SEGMENT_NAME.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Hands every intact record of the segment to the consumer, stopping at the first corrupt one.
+     */
+    static SegmentSummary readSegment(Path path, Consumer<AuditEvent> consumer) throws IOException {
+        ByteBuffer segment;
+        try (FileChannel channel = FileChannel.open(path)) {
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (segment.remaining() < AuditRecordCodec.HEADER_SIZE || segment.getLong() != AuditRecordCodec.MAGIC) {
+            return new SegmentSummary(path, 0, false, "not an audit segment");
+        }
+        int version = segment.getInt();
+        if (version != AuditRecordCodec.VERSION) {
+            return new SegmentSummary(path, 0, false, "unsupported version " + version);
+        }
+
+        CRC32C segmentCrc = new CRC32C();
+        long records = 0;
+        while (segment.remaining() >= Integer.BYTES) {
+            int start = segment.position();
+            int length = segment.getInt();
+            if (length == 0) {
+                return new SegmentSummary(path, records, false, null);
+            }
+            if (length == AuditRecordCodec.TRAILER_MARKER) {
+                return readTrailer(path, segment, records, segmentCrc);
+            }
+            if (length < 0 || length > segment.remaining() - Integer.BYTES) {
+                return new SegmentSummary(path, records, false, "invalid record length %s at offset %s".formatted(length, start));
+            }
+
+            int crc = segment.getInt();
+            ByteBuffer body = segment.slice(segment.position(), length);
+            CRC32C recordCrc = new CRC32C();
+            recordCrc.update(body.duplicate());
+            if ((int) recordCrc.getValue() != crc) {
+                return new SegmentSummary(path, records, false, "checksum mismatch at offset " + start);
+            }
+
+            consumer.accept(AuditRecordCodec.decode(body));
+            segmentCrc.update(segment.slice(start, AuditRecordCodec.RECORD_PREFIX_SIZE + length));
+            segment.position(segment.position() + length);
+            records++;
+        }
+        return new SegmentSummary(path, records, false, null);
+    }
+
+    private static SegmentSummary readTrailer(Path path, ByteBuffer segment, long records, CRC32C segmentCrc) {
+        if (segment.remaining() < AuditRecordCodec.TRAILER_SIZE - Integer.BYTES) {
+            return new SegmentSummary(path, records, true, "truncated trailer");
+        }
+        long expectedRecords = segment.getLong();
+        int expectedCrc = segment.getInt();
+        if (expectedRecords != records) {
+            return new SegmentSummary(path, records, true, "trailer counts %s records".formatted(expectedRecords));
+        }
+        if (expectedCrc != (int) segmentCrc.getValue()) {
+            return new SegmentSummary(path, records, true, "segment checksum mismatch");
+        }
+        return new SegmentSummary(path, records, true, null);
+    }
+}
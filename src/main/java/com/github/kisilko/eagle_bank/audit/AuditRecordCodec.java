@@ -0,0 +1,90 @@
+package com.github.kisilko.eagle_bank.audit;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of audit segments. All numbers are big-endian.
+ * <pre>
+ * segment  := header record* [trailer]
+ * header   := magic:long version:int
+ * record   := length:int crc:int type:byte timestamp:long subject:long actor:string detail:string
+ * string   := length:short (-1 for null) utf8-bytes
+ * trailer  := -1:int records:long crc:int
+ * </pre>
+ * A record's {@code length} counts the bytes after its {@code crc}, and {@code crc} is the CRC32C of those bytes.
+ * The trailer is written when a segment is sealed; its {@code crc} is the CRC32C of all record bytes in the segment.
+ * Segments are preallocated and zero-filled, so a segment that was not sealed ends at the first zero length.
+ */
+final class AuditRecordCodec {
+
+    static final long MAGIC = 0x4542_4155_4449_5431L; // "EBAUDIT1"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = Long.BYTES + Integer.BYTES;
+    static final int TRAILER_MARKER = -1;
+    static final int TRAILER_SIZE = Integer.BYTES + Long.BYTES + Integer.BYTES;
+    static final int RECORD_PREFIX_SIZE = 2 * Integer.BYTES;
+
+    private static final int MAX_STRING_CHARS = 256;
+    private static final int MAX_RECORD_SIZE = RECORD_PREFIX_SIZE + 1 + 2 * Long.BYTES + 2 * (Short.BYTES + 3 * MAX_STRING_CHARS);
+
+    private AuditRecordCodec() {
+    }
+
+    static ByteBuffer newRecordBuffer() {
+        return ByteBuffer.allocate(MAX_RECORD_SIZE);
+    }
+
+    /**
+     * Encodes a whole record, prefix included, into the cleared buffer and flips it for reading.
+     */
+    static void encode(AuditEvent event, ByteBuffer buffer) {
+        buffer.clear();
+        buffer.position(RECORD_PREFIX_SIZE);
+        buffer.put((byte) event.type().ordinal());
+        buffer.putLong(event.timestampMillis());
+        buffer.putLong(event.subjectId());
+        putString(buffer, event.actor());
+        putString(buffer, event.detail());
+        buffer.flip();
+
+        int length = buffer.limit() - RECORD_PREFIX_SIZE;
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(RECORD_PREFIX_SIZE, length));
+        buffer.putInt(0, length);
+        buffer.putInt(Integer.BYTES, (int) crc.getValue());
+    }
+
+    /**
+     * Decodes the record body that follows the prefix; the buffer must be positioned at its first byte.
+     */
+    static AuditEvent decode(ByteBuffer body) {
+        AuditEventType type = AuditEventType.values()[body.get()];
+        long timestampMillis = body.getLong();
+        long subjectId = body.getLong();
+        String actor = getString(body);
+        String detail = getString(body);
+        return new AuditEvent(timestampMillis, type, actor, subjectId, detail);
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer.putShort((short) -1);
+            return;
+        }
+        byte[] bytes = (value.length() > MAX_STRING_CHARS ? value.substring(0, MAX_STRING_CHARS) : value).getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        short length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.kisilko.eagle_bank.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Appends records to memory-mapped segment files of a fixed size. When a record does not fit, the current
+ * segment is sealed with a trailer and forced, and the next one is created. Not thread-safe; it is only used
+ * from the audit writer thread.
+ */
+final class AuditSegmentWriter implements Closeable {
+
+    static final Pattern SEGMENT_NAME = Pattern.compile("audit-(\\d{12})\\.seg");
+
+    private final Path directory;
+    private final int segmentSize;
+    private final ByteBuffer record = AuditRecordCodec.newRecordBuffer();
+
+    private MappedByteBuffer segment;
+    private long segmentIndex;
+    private long segmentRecords;
+    private CRC32C segmentCrc;
+
+    AuditSegmentWriter(Path directory, int segmentSize) throws IOException {
+        if (segmentSize < AuditRecordCodec.HEADER_SIZE + AuditRecordCodec.newRecordBuffer().capacity() + AuditRecordCodec.TRAILER_SIZE) {
+            throw new IllegalArgumentException("Audit segment size %s is too small for a record".formatted(segmentSize));
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.segmentIndex = lastSegmentIndex(directory);
+        openNextSegment();
+    }
+
+    void append(AuditEvent event) {
+        AuditRecordCodec.encode(event, record);
+        if (segment.remaining() < record.remaining() + AuditRecordCodec.TRAILER_SIZE) {
+            seal();
+            openNextSegment();
+        }
+        segmentCrc.update(record.duplicate());
+        segment.put(record);
+        segmentRecords++;
+    }
+
+    /**
+     * Writes the appended records through to the storage device.
+     */
+    void force() {
+        segment.force();
+    }
+
+    @Override
+    public void close() {
+        seal();
+    }
+
+    private void seal() {
+        segment.putInt(AuditRecordCodec.TRAILER_MARKER);
+        segment.putLong(segmentRecords);
+        segment.putInt((int) segmentCrc.getValue());
+        segment.force();
+    }
+
+    private void openNextSegment() {
+        segmentIndex++;
+        Path path = directory.resolve("audit-%012d.seg".formatted(segmentIndex));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // the mapping stays valid after the channel is closed
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not create audit segment " + path, e);
+        }
+        segment.putLong(AuditRecordCodec.MAGIC);
+        segment.putInt(AuditRecordCodec.VERSION);
+        segmentRecords = 0;
+        segmentCrc = new CRC32C();
+    }
+
+    private static long lastSegmentIndex(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> SEGMENT_NAME.matcher(file.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .mapToLong(matcher -> Long.parseLong(matcher.group(1)))
+                    .max()
+                    .orElse(0);
+        }
+    }
+}
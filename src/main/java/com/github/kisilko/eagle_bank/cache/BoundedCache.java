@@ -0,0 +1,177 @@
+package com.github.kisilko.eagle_bank.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded, expiry-aware in-memory cache.
+ * <p>
+ * Reads are lock-free. When the cache grows past {@code maxSize}, a small sample of entries is inspected
+ * and an expired entry or the least recently used one of the sample is evicted (approximate LRU).
+ * A {@code maxSize} of zero disables caching.
+ */
+public class BoundedCache<K, V> {
+
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+    private static final int EVICTION_SAMPLE_SIZE = 8;
+
+    private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public BoundedCache(int maxSize) {
+        if (maxSize < 0) {
+            throw new IllegalArgumentException("maxSize must not be negative");
+        }
+        this.maxSize = maxSize;
+    }
+
+    public V get(K key) {
+        Entry<V> entry = entries.get(key);
+        if (entry == null) {
+            misses.increment();
+            return null;
+        }
+
+        long now = System.currentTimeMillis();
+        if (entry.isExpired(now)) {
+            if (entries.remove(key, entry)) {
+                evictions.increment();
+            }
+            misses.increment();
+            return null;
+        }
+
+        entry.touch(now);
+        hits.increment();
+        return entry.value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, NO_EXPIRY);
+    }
+
+    public void put(K key, V value, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (maxSize == 0 || expiresAtMillis <= now) {
+            return;
+        }
+
+        if (entries.put(key, new Entry<>(value, expiresAtMillis, now)) == null) {
+            evictIfNecessary(now);
+        }
+    }
+
+    /**
+     * Stores the value unless a live entry already exists for the key.
+     *
+     * @return the value of the live entry, or {@code null} if the given value has been stored
+     */
+    public V putIfAbsent(K key, V value, long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        if (maxSize == 0 || expiresAtMillis <= now) {
+            return null;
+        }
+
+        Entry<V> created = new Entry<>(value, expiresAtMillis, now);
+        while (true) {
+            Entry<V> existing = entries.putIfAbsent(key, created);
+            if (existing == null) {
+                evictIfNecessary(now);
+                return null;
+            }
+            if (!existing.isExpired(now)) {
+                existing.touch(now);
+                return existing.value;
+            }
+            if (entries.replace(key, existing, created)) {
+                evictions.increment();
+                return null;
+            }
+        }
+    }
+
+    public void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Removes the entry for the key only if it still holds the given value.
+     */
+    public void invalidate(K key, V value) {
+        entries.computeIfPresent(key, (k, entry) -> entry.value == value ? null : entry);
+    }
+
+    public void invalidateAll() {
+        entries.clear();
+    }
+
+    public long size() {
+        return entries.mappingCount();
+    }
+
+    public CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), size());
+    }
+
+    private void evictIfNecessary(long now) {
+        while (entries.mappingCount() > maxSize) {
+            K victim = selectVictim(now);
+            if (victim == null) {
+                return;
+            }
+            if (entries.remove(victim) != null) {
+                evictions.increment();
+            }
+        }
+    }
+
+    private K selectVictim(long now) {
+        K victim = null;
+        long oldestAccess = Long.MAX_VALUE;
+        int sampled = 0;
+
+        for (Map.Entry<K, Entry<V>> candidate : entries.entrySet()) {
+            Entry<V> entry = candidate.getValue();
+            if (entry.isExpired(now)) {
+                return candidate.getKey();
+            }
+            if (entry.lastAccess < oldestAccess) {
+                oldestAccess = entry.lastAccess;
+                victim = candidate.getKey();
+            }
+            if (++sampled == EVICTION_SAMPLE_SIZE) {
+                break;
+            }
+        }
+        return victim;
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+        private final long expiresAt;
+        private volatile long lastAccess;
+
+        private Entry(V value, long expiresAt, long lastAccess) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+            this.lastAccess = lastAccess;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        private void touch(long now) {
+            // avoid a volatile write per hit on hot keys; millisecond precision is enough for LRU sampling
+            if (lastAccess != now) {
+                lastAccess = now;
+            }
+        }
+    }
+}
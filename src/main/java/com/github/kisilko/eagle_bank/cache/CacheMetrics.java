@@ -0,0 +1,34 @@
+package com.github.kisilko.eagle_bank.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Publishes {@link BoundedCache} statistics under the meter names Micrometer uses for its own cache binders.
+ * Meters hold the cache weakly, so the owner of the cache must keep it reachable.
+ */
+public final class CacheMetrics {
+
+    private CacheMetrics() {
+    }
+
+    public static void bind(MeterRegistry registry, String cacheName, BoundedCache<?, ?> cache) {
+        FunctionCounter.builder("cache.gets", cache, c -> c.stats().hits())
+                .tags("cache", cacheName, "result", "hit")
+                .description("The number of times cache lookup methods have returned a cached value")
+                .register(registry);
+        FunctionCounter.builder("cache.gets", cache, c -> c.stats().misses())
+                .tags("cache", cacheName, "result", "miss")
+                .description("The number of times cache lookup methods have not returned a value")
+                .register(registry);
+        FunctionCounter.builder("cache.evictions", cache, c -> c.stats().evictions())
+                .tag("cache", cacheName)
+                .description("The number of entries evicted to stay within the maximum size")
+                .register(registry);
+        Gauge.builder("cache.size", cache, BoundedCache::size)
+                .tag("cache", cacheName)
+                .description("The number of entries in the cache")
+                .register(registry);
+    }
+}
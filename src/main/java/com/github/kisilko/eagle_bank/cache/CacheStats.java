@@ -0,0 +1,14 @@
+package com.github.kisilko.eagle_bank.cache;
+
+public record CacheStats(
+        long hits,
+        long misses,
+        long evictions,
+        long size
+) {
+
+    public double hitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.kisilko.eagle_bank.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bloom filter over strings that also supports removal.
+ * <p>
+ * Each position is a 4-bit counter instead of a bit, sixteen of them packed into a long and updated with CAS,
+ * so adds, removes and lookups are lock-free. A counter that reaches 15 stays there: removing through it could
+ * otherwise drop a value that is still present. A negative answer is definite as long as only values that were
+ * added are removed; a positive answer is wrong with about the configured probability.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_LONG = 16;
+    private static final long MAX_COUNT = 15;
+
+    private final AtomicLongArray counters;
+    private final long counterCount;
+    private final int hashCount;
+    private final LongAdder entries = new LongAdder();
+
+    public CountingBloomFilter(long expectedEntries, double falsePositiveRate) {
+        if (expectedEntries <= 0) {
+            throw new IllegalArgumentException("expectedEntries must be positive");
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        }
+        long optimalCounters = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int longs = Math.toIntExact((optimalCounters + COUNTERS_PER_LONG - 1) / COUNTERS_PER_LONG);
+        this.counters = new AtomicLongArray(longs);
+        this.counterCount = (long) longs * COUNTERS_PER_LONG;
+        this.hashCount = Math.max(1, (int) Math.round((double) counterCount / expectedEntries * Math.log(2)));
+    }
+
+    public void add(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            update(index(hash, i), 1);
+        }
+        entries.increment();
+    }
+
+    /**
+     * Removes a value that has been {@linkplain #add added}; removing anything else can cause false negatives.
+     */
+    public void remove(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            update(index(hash, i), -1);
+        }
+        entries.decrement();
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        for (int i = 0; i < hashCount; i++) {
+            long index = index(hash, i);
+            if (count(counters.get((int) (index / COUNTERS_PER_LONG)), index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Values added and not removed since, which may differ from the distinct values present if one was added twice.
+     */
+    public long entries() {
+        return Math.max(0, entries.sum());
+    }
+
+    public long memoryBytes() {
+        return (long) counters.length() * Long.BYTES;
+    }
+
+    /**
+     * False positive probability for the current number of entries.
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * entries() / counterCount), hashCount);
+    }
+
+    private void update(long index, int delta) {
+        int slot = (int) (index / COUNTERS_PER_LONG);
+        int shift = (int) (index % COUNTERS_PER_LONG) * 4;
+        while (true) {
+            long word = counters.get(slot);
+            long count = (word >>> shift) & MAX_COUNT;
+            if (count == MAX_COUNT || delta < 0 && count == 0) {
+                return;
+            }
+            long updated = word + ((long) delta << shift);
+            if (counters.compareAndSet(slot, word, updated)) {
+                return;
+            }
+        }
+    }
+
+    private long index(long hash, int i) {
+        // Kirsch-Mitzenmacher: k positions from the two halves of one 64-bit hash
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        return Integer.toUnsignedLong(h1 + i * h2) % counterCount;
+    }
+
+    private static long count(long word, long index) {
+        return (word >>> ((index % COUNTERS_PER_LONG) * 4)) & MAX_COUNT;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over the UTF-8 bytes, finished with the SplitMix64 mixer to spread the bits
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 30)) * 0xbf58476d1ce4e5b9L;
+        hash = (hash ^ (hash >>> 27)) * 0x94d049bb133111ebL;
+        return hash ^ (hash >>> 31);
+    }
+}
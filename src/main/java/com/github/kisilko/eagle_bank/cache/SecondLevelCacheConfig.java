@@ -0,0 +1,45 @@
+package com.github.kisilko.eagle_bank.cache;
+
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.ehcache.xml.XmlConfiguration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Gives each application context its own cache manager for the Hibernate second-level cache.
+ * <p>
+ * The caching provider keeps one manager per configuration URI for the whole JVM, so contexts configured with the
+ * same {@code ehcache.xml} would share their regions, and a context would read entities cached from the database
+ * of another, as test contexts with different in-memory databases do. Hibernate closes the manager with the
+ * session factory.
+ */
+@Configuration(proxyBeanMethods = false)
+class SecondLevelCacheConfig {
+
+    // org.hibernate.cache.jcache.ConfigSettings.CACHE_MANAGER, hibernate-jcache is a runtime dependency only
+    private static final String CACHE_MANAGER_SETTING = "hibernate.javax.cache.cache_manager";
+
+    @Bean(destroyMethod = "close")
+    CacheManager secondLevelCacheManager(ApplicationContext applicationContext,
+                                         @Value("${spring.jpa.properties.hibernate.javax.cache.uri:ehcache.xml}") String configLocation) throws IOException {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        XmlConfiguration configuration = new XmlConfiguration(new ClassPathResource(configLocation).getURL(), getClass().getClassLoader());
+        URI uri = URI.create("urn:eagle-bank:second-level-cache:" + ObjectUtils.getIdentityHexString(applicationContext));
+        return provider.getCacheManager(uri, configuration);
+    }
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> properties.put(CACHE_MANAGER_SETTING, secondLevelCacheManager);
+    }
+}
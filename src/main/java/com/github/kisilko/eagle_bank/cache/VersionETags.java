@@ -0,0 +1,53 @@
+package com.github.kisilko.eagle_bank.cache;
+
+import org.springframework.http.ETag;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Strong entity tags derived from the {@code @Version} column of an entity, so a conditional request can be
+ * answered from the version alone.
+ */
+public final class VersionETags {
+
+    private VersionETags() {
+    }
+
+    public static String format(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Whether an {@code If-None-Match} header matches the version. Uses the weak comparison RFC 9110 asks for.
+     */
+    public static boolean matches(String ifNoneMatch, long version) {
+        ETag current = new ETag(Long.toString(version), false);
+        return ETag.parse(ifNoneMatch).stream()
+                .anyMatch(etag -> etag.isWildcard() || etag.compare(current, false));
+    }
+
+    /**
+     * Versions named by an {@code If-Match} header. Weak and foreign tags never match, as If-Match uses the strong
+     * comparison.
+     *
+     * @return {@code null} for {@code *}, which matches any version
+     */
+    public static Set<Long> versions(String ifMatch) {
+        Set<Long> versions = new HashSet<>();
+        for (ETag etag : ETag.parse(ifMatch)) {
+            if (etag.isWildcard()) {
+                return null;
+            }
+            if (etag.weak()) {
+                continue;
+            }
+            try {
+                versions.add(Long.parseLong(etag.tag()));
+            } catch (NumberFormatException e) {
+                // not a tag of ours, it cannot match
+            }
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Sends read-only transactions to a replica when {@code datasource.replica.url} is set.
+ * <p>
+ * The application data source is a {@link LazyConnectionDataSourceProxy} over the primary. It takes no connection
+ * until the first statement, when the transaction is known to be read-only, and then takes it from
+ * {@link ReplicaRoutingDataSource} instead, which picks the replica or the primary as
+ * {@link ReplicaTransactionListener} decided when the transaction began. Both pools are sized separately,
+ * under {@code spring.datasource.hikari} and {@code datasource.replica.hikari}.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    @ConfigurationProperties("datasource.replica.hikari")
+    HikariDataSource replicaDataSource(ReplicaProperties properties) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(properties.url())
+                .username(properties.username())
+                .password(properties.password())
+                .driverClassName(properties.driverClassName())
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaRouting replicaRouting(@Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                  ReplicaProperties properties,
+                                  @Value("${datasource.replica.max-tracked-writers:100000}") int maxTrackedWriters) {
+        return new ReplicaRouting(replicaDataSource, properties, maxTrackedWriters);
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                          @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource));
+        return dataSource;
+    }
+
+    @Bean
+    ReplicaTransactionListener replicaTransactionListener(ReplicaRouting replicaRouting) {
+        return new ReplicaTransactionListener(replicaRouting);
+    }
+
+    @Bean
+    ReadYourWritesFilter readYourWritesFilter(ReplicaRouting replicaRouting) {
+        return new ReadYourWritesFilter(replicaRouting);
+    }
+}
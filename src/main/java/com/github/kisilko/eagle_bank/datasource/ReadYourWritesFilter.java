@@ -0,0 +1,48 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Records every request that may change data as a write of its caller, before it runs and again when it is done.
+ * Postings are applied on their own threads, so the request, not the transaction, is what identifies the caller.
+ * Registered as a servlet filter after the security filter chain, where the caller is known.
+ */
+class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    private static final Set<String> SAFE_METHODS = Set.of(HttpMethod.GET.name(), HttpMethod.HEAD.name(), HttpMethod.OPTIONS.name());
+
+    private final ReplicaRouting routing;
+
+    ReadYourWritesFilter(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return SAFE_METHODS.contains(request.getMethod());
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // a CompletableFuture handler finishes its work on the async dispatch
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        routing.recordWrite();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            routing.recordWrite();
+        }
+    }
+}
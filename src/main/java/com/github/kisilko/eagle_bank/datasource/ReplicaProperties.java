@@ -0,0 +1,24 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection settings of the read replica; its pool is configured under {@code datasource.replica.hikari}.
+ *
+ * @param maxLag           reads go to the primary while the replica is further behind than this
+ * @param lagCheckInterval how often {@code lagQuery} is run
+ * @param lagQuery         returns how many milliseconds the replica is behind the primary; without one the replica
+ *                         is assumed to be up to date, as with synchronous replication
+ */
+@ConfigurationProperties("datasource.replica")
+record ReplicaProperties(String url,
+                         String username,
+                         String password,
+                         String driverClassName,
+                         @DefaultValue("1s") Duration maxLag,
+                         @DefaultValue("1s") Duration lagCheckInterval,
+                         String lagQuery) {
+}
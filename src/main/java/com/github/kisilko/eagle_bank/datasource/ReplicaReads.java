@@ -0,0 +1,53 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManager;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Marks transactions that read from the replica. What they read may be older than the lag limit and read-your-writes
+ * allow once it is cached, because cached data is served before any routing, so it must not be cached: their entity
+ * managers only read the second-level cache and leave the query cache alone, and other caches skip the fill when
+ * {@link #inCurrentTransaction()} is set.
+ */
+public final class ReplicaReads {
+
+    private static final Object KEY = new Object();
+
+    private ReplicaReads() {
+    }
+
+    /**
+     * @return whether the current transaction reads from the replica
+     */
+    public static boolean inCurrentTransaction() {
+        return TransactionSynchronizationManager.hasResource(KEY);
+    }
+
+    static void markCurrentTransaction() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive() || TransactionSynchronizationManager.hasResource(KEY)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(KEY, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(KEY);
+            }
+        });
+        for (Object resource : TransactionSynchronizationManager.getResourceMap().values()) {
+            if (resource instanceof EntityManagerHolder holder) {
+                EntityManager entityManager = holder.getEntityManager();
+                // finds take the mode from the property, queries from the session, and a query that may read the
+                // query cache also fills it
+                entityManager.setProperty(SpecHints.HINT_SPEC_CACHE_STORE_MODE, CacheStoreMode.BYPASS);
+                entityManager.unwrap(Session.class).setCacheMode(CacheMode.IGNORE);
+            }
+        }
+    }
+}
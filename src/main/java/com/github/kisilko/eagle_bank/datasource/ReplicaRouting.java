@@ -0,0 +1,137 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import com.github.kisilko.eagle_bank.cache.BoundedCache;
+import com.github.kisilko.eagle_bank.cache.CacheMetrics;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Decides whether a read-only transaction may read from the replica.
+ * <p>
+ * The replica is used while its lag, measured every {@code lagCheckInterval}, is within {@code maxLag}. A caller who
+ * changed something reads from the primary for {@code maxLag} plus one check interval afterwards, by which time the
+ * change has reached any replica that is being read from, so callers always see their own writes.
+ */
+@Slf4j
+class ReplicaRouting implements MeterBinder {
+
+    private static final long UNKNOWN_LAG = Long.MAX_VALUE;
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMillis;
+    private final long stickyMillis;
+    private final BoundedCache<String, Boolean> recentWriters;
+    private final Thread lagChecker;
+
+    private volatile long lagMillis;
+
+    private final LongAdder replicaReads = new LongAdder();
+    private final LongAdder stickyReads = new LongAdder();
+    private final LongAdder laggingReads = new LongAdder();
+
+    ReplicaRouting(DataSource replica, ReplicaProperties properties, int maxTrackedWriters) {
+        this.replica = replica;
+        this.lagQuery = properties.lagQuery();
+        this.maxLagMillis = properties.maxLag().toMillis();
+        long intervalMillis = properties.lagCheckInterval().toMillis();
+        this.stickyMillis = maxLagMillis + intervalMillis;
+        this.recentWriters = new BoundedCache<>(maxTrackedWriters);
+        this.lagMillis = lagQuery == null ? 0 : UNKNOWN_LAG;
+
+        this.lagChecker = lagQuery == null ? null : Thread.ofPlatform().name("replica-lag-checker").daemon().start(() -> {
+            try {
+                while (true) {
+                    checkLag();
+                    Thread.sleep(intervalMillis);
+                }
+            } catch (InterruptedException e) {
+                // shutting down
+            }
+        });
+    }
+
+    boolean useReplica() {
+        String caller = caller();
+        if (caller != null && recentWriters.get(caller) != null) {
+            stickyReads.increment();
+            return false;
+        }
+        if (lagMillis > maxLagMillis) {
+            laggingReads.increment();
+            return false;
+        }
+        replicaReads.increment();
+        return true;
+    }
+
+    /**
+     * Sends the reads of the current caller to the primary until the replica has caught up with what they wrote.
+     */
+    void recordWrite() {
+        String caller = caller();
+        if (caller != null) {
+            recentWriters.put(caller, Boolean.TRUE, System.currentTimeMillis() + stickyMillis);
+        }
+    }
+
+    void checkLag() {
+        if (lagQuery == null) {
+            return;
+        }
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(lagQuery)) {
+            lagMillis = resultSet.next() ? Math.max(0, resultSet.getLong(1)) : UNKNOWN_LAG;
+        } catch (SQLException e) {
+            if (lagMillis != UNKNOWN_LAG) {
+                log.warn("Could not measure the replica lag, reading from the primary until it can be measured", e);
+            }
+            lagMillis = UNKNOWN_LAG;
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (lagChecker != null) {
+            lagChecker.interrupt();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        reads(registry, "replica", "lag-within-tolerance", replicaReads);
+        reads(registry, "primary", "read-your-writes", stickyReads);
+        reads(registry, "primary", "replica-lag", laggingReads);
+        Gauge.builder("datasource.replica.lag", this, routing -> routing.lagMillis == UNKNOWN_LAG ? Double.NaN : routing.lagMillis)
+                .baseUnit("milliseconds")
+                .description("How far the replica was behind the primary at the last check")
+                .register(registry);
+        CacheMetrics.bind(registry, "datasource.recent-writers", recentWriters);
+    }
+
+    private static void reads(MeterRegistry registry, String target, String reason, LongAdder count) {
+        FunctionCounter.builder("datasource.read-only.transactions", count, LongAdder::sum)
+                .tags("target", target, "reason", reason)
+                .description("Read-only transactions by the database they read from")
+                .register(registry);
+    }
+
+    private static String caller() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : null;
+    }
+}
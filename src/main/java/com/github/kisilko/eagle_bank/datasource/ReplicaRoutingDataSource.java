@@ -0,0 +1,28 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Source of the connections of read-only transactions: the replica for the transactions
+ * {@link ReplicaTransactionListener} marked as {@link ReplicaReads}, the primary for the others.
+ */
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private enum Target {
+        PRIMARY, REPLICA
+    }
+
+    ReplicaRoutingDataSource(DataSource primary, DataSource replica) {
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReplicaReads.inCurrentTransaction() ? Target.REPLICA : Target.PRIMARY;
+    }
+}
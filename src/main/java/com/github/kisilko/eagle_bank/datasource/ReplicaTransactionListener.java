@@ -0,0 +1,27 @@
+package com.github.kisilko.eagle_bank.datasource;
+
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Decides where a read-only transaction reads from as it begins, before its first statement: Hibernate settles
+ * whether a query result may be cached before it takes the connection, so deciding when the connection is taken
+ * would be too late to keep replica reads out of the caches.
+ */
+class ReplicaTransactionListener implements TransactionExecutionListener {
+
+    private final ReplicaRouting routing;
+
+    ReplicaTransactionListener(ReplicaRouting routing) {
+        this.routing = routing;
+    }
+
+    @Override
+    public void afterBegin(TransactionExecution transaction, Throwable beginFailure) {
+        if (beginFailure == null && transaction.isNewTransaction() && transaction.isReadOnly()
+                && TransactionSynchronizationManager.isSynchronizationActive() && routing.useReplica()) {
+            ReplicaReads.markCurrentTransaction();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.kisilko.eagle_bank.hateoas;
+
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Link to a controller method whose URI template is resolved once from the request mappings.
+ * <p>
+ * Produces the same hrefs as {@code WebMvcLinkBuilder.linkTo(methodOn(...))} without creating an invocation
+ * proxy per link: expanding only prepends the base URI of the current request and inserts the path variables.
+ */
+public final class LinkTemplate {
+
+    private static final PathMatcher PATH_MATCHER = new AntPathMatcher();
+    private static final String BASE_URI_ATTRIBUTE = LinkTemplate.class.getName() + ".BASE_URI";
+
+    private final String template;
+    private final String[] literals;
+
+    private LinkTemplate(String template) {
+        this.template = template;
+        this.literals = split(template);
+    }
+
+    public static LinkTemplate of(Class<?> controller, String methodName) {
+        RequestMapping typeMapping = AnnotatedElementUtils.findMergedAnnotation(controller, RequestMapping.class);
+        RequestMapping methodMapping = AnnotatedElementUtils.findMergedAnnotation(findHandlerMethod(controller, methodName), RequestMapping.class);
+
+        return new LinkTemplate(PATH_MATCHER.combine(firstPath(typeMapping), firstPath(methodMapping)));
+    }
+
+    public static String currentBaseUri() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return "";
+        }
+
+        String baseUri = (String) attributes.getAttribute(BASE_URI_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (baseUri == null) {
+            baseUri = ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+            attributes.setAttribute(BASE_URI_ATTRIBUTE, baseUri, RequestAttributes.SCOPE_REQUEST);
+        }
+        return baseUri;
+    }
+
+    public String expand(Object... pathVariables) {
+        return expand(currentBaseUri(), pathVariables);
+    }
+
+    public String expand(String baseUri, Object... pathVariables) {
+        if (pathVariables.length != literals.length - 1) {
+            throw new IllegalArgumentException("Template %s expects %s path variables, got %s"
+                    .formatted(template, literals.length - 1, pathVariables.length));
+        }
+
+        StringBuilder href = new StringBuilder(baseUri.length() + template.length() + 16)
+                .append(baseUri)
+                .append(literals[0]);
+        for (int i = 0; i < pathVariables.length; i++) {
+            href.append(UriUtils.encodePathSegment(String.valueOf(pathVariables[i]), StandardCharsets.UTF_8))
+                    .append(literals[i + 1]);
+        }
+        return href.toString();
+    }
+
+    public Link link(LinkRelation relation, Object... pathVariables) {
+        return Link.of(expand(pathVariables), relation);
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    private static String[] split(String template) {
+        List<String> literals = new ArrayList<>();
+        int start = 0;
+        int open;
+        while ((open = template.indexOf('{', start)) >= 0) {
+            int close = template.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed path variable in " + template);
+            }
+            literals.add(template.substring(start, open));
+            start = close + 1;
+        }
+        literals.add(template.substring(start));
+        return literals.toArray(String[]::new);
+    }
+
+    private static Method findHandlerMethod(Class<?> controller, String methodName) {
+        List<Method> candidates = Arrays.stream(controller.getMethods())
+                .filter(method -> method.getName().equals(methodName))
+                .filter(method -> AnnotatedElementUtils.hasAnnotation(method, RequestMapping.class))
+                .toList();
+
+        if (candidates.size() != 1) {
+            throw new IllegalArgumentException("Expected exactly one handler method %s on %s, found %s"
+                    .formatted(methodName, controller.getName(), candidates.size()));
+        }
+        return candidates.getFirst();
+    }
+
+    private static String firstPath(RequestMapping mapping) {
+        return mapping == null || mapping.path().length == 0 ? "" : mapping.path()[0];
+    }
+}
@@ -0,0 +1,275 @@
+package com.github.kisilko.eagle_bank.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.kisilko.eagle_bank.cache.BoundedCache;
+import com.github.kisilko.eagle_bank.cache.CacheMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingRequestWrapper;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Makes POST requests that carry an {@code Idempotency-Key} header safe to retry. The first request with a key runs
+ * the handler and its response is kept in memory; repeats get the kept response without running the handler again,
+ * and repeats that arrive while the first one is still running wait for its response.
+ * <p>
+ * Keys are scoped to the caller and the path. Responses with a 5xx status are not kept, so those requests can be
+ * retried for real. Reusing a key with a different body is rejected with 422.
+ * <p>
+ * Handlers that answer asynchronously have written nothing when the chain returns, so their response is kept at
+ * the end of the async dispatch instead.
+ */
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter implements MeterBinder {
+
+    static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String EXECUTION_ATTRIBUTE = IdempotencyFilter.class.getName() + ".execution";
+
+    private final BoundedCache<String, CompletableFuture<StoredResponse>> responses;
+    private final long ttlMillis;
+    private final List<PathPattern> paths;
+    private final ObjectMapper objectMapper;
+
+    IdempotencyFilter(@Value("${idempotency.max-size:10000}") int maxSize,
+                      @Value("${idempotency.ttl-seconds:86400}") long ttlSeconds,
+                      @Value("${idempotency.paths:/v1/users,/v1/accounts,/v1/accounts/{accountId}/transactions,/v1/transfers}") List<String> paths,
+                      ObjectMapper objectMapper) {
+        this.responses = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+        this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod())
+                || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null
+                || paths.stream().noneMatch(pattern -> pattern.matches(PathContainer.parsePath(path(request))));
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (isAsyncDispatch(request)) {
+            resume((Execution) request.getAttribute(EXECUTION_ATTRIBUTE), request, response, filterChain);
+            return;
+        }
+
+        String idempotencyKey = request.getHeader(IDEMPOTENCY_KEY_HEADER);
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            writeProblem(response, HttpStatus.BAD_REQUEST, "Idempotency-Key must have 1 to %s characters".formatted(MAX_KEY_LENGTH));
+            return;
+        }
+        String key = scope(request) + ' ' + idempotencyKey;
+
+        while (true) {
+            CompletableFuture<StoredResponse> result = new CompletableFuture<>();
+            CompletableFuture<StoredResponse> previous = responses.putIfAbsent(key, result, System.currentTimeMillis() + ttlMillis);
+            if (previous == null) {
+                execute(new Execution(key, result, new ContentCachingRequestWrapper(request), new ContentCachingResponseWrapper(response)),
+                        request, filterChain);
+                return;
+            }
+
+            StoredResponse storedResponse = previous.join();
+            if (storedResponse != null) {
+                replay(storedResponse, request, response);
+                return;
+            }
+            // the earlier request failed and left nothing to replay, so try to run it again
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMetrics.bind(registry, "idempotency.responses", responses);
+    }
+
+    private void execute(Execution execution, HttpServletRequest request, FilterChain filterChain) throws ServletException, IOException {
+        boolean handled = false;
+        try {
+            filterChain.doFilter(execution.request, execution.response);
+            handled = true;
+        } finally {
+            if (handled && request.isAsyncStarted()) {
+                request.setAttribute(EXECUTION_ATTRIBUTE, execution);
+                request.getAsyncContext().addListener(execution);
+            } else {
+                finish(execution, handled);
+            }
+        }
+    }
+
+    private void resume(Execution execution, HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        if (execution == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        boolean handled = false;
+        try {
+            filterChain.doFilter(request, response);
+            handled = true;
+        } finally {
+            if (!handled || !request.isAsyncStarted()) {
+                finish(execution, handled);
+            }
+        }
+    }
+
+    private void finish(Execution execution, boolean handled) throws IOException {
+        if (!execution.finished.compareAndSet(false, true)) {
+            return;
+        }
+        StoredResponse storedResponse = null;
+        try {
+            if (handled && execution.response.getStatus() < 500) {
+                storedResponse = new StoredResponse(
+                        digest(execution.request.getContentAsByteArray()),
+                        execution.response.getStatus(),
+                        replayedHeaders(execution.response),
+                        execution.response.getContentAsByteArray());
+            }
+        } finally {
+            if (storedResponse == null) {
+                responses.invalidate(execution.key, execution.result);
+            }
+            execution.result.complete(storedResponse);
+            execution.response.copyBodyToResponse();
+        }
+    }
+
+    private void replay(StoredResponse storedResponse, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!MessageDigest.isEqual(storedResponse.requestDigest(), digest(request.getInputStream().readAllBytes()))) {
+            writeProblem(response, HttpStatus.UNPROCESSABLE_ENTITY, "Idempotency-Key was already used with a different request body");
+            return;
+        }
+
+        response.setStatus(storedResponse.status());
+        storedResponse.headers().forEach((name, values) -> values.forEach(value -> response.addHeader(name, value)));
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(storedResponse.body().length);
+        response.getOutputStream().write(storedResponse.body());
+    }
+
+    private void writeProblem(HttpServletResponse response, HttpStatus status, String detail) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), ProblemDetail.forStatusAndDetail(status, detail));
+    }
+
+    private static String scope(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String caller = authentication != null ? authentication.getName() : "";
+        return caller + ' ' + path(request);
+    }
+
+    /**
+     * The path without the context path, also when the request did not go through a servlet mapping, as under
+     * MockMvc where the servlet path is empty.
+     */
+    private static String path(HttpServletRequest request) {
+        return UrlPathHelper.defaultInstance.getPathWithinApplication(request);
+    }
+
+    private static Map<String, List<String>> replayedHeaders(HttpServletResponse response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        if (response.getContentType() != null) {
+            headers.put(HttpHeaders.CONTENT_TYPE, List.of(response.getContentType()));
+        }
+        if (response.containsHeader(HttpHeaders.LOCATION)) {
+            headers.put(HttpHeaders.LOCATION, new ArrayList<>(response.getHeaders(HttpHeaders.LOCATION)));
+        }
+        return headers;
+    }
+
+    private static byte[] digest(byte[] body) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(body);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * A request that runs the handler for its key. When the handler answers asynchronously and the async dispatch
+     * never comes, as after an I/O error, the container's completion still releases the requests waiting for it.
+     */
+    private final class Execution implements AsyncListener {
+
+        private final String key;
+        private final CompletableFuture<StoredResponse> result;
+        private final ContentCachingRequestWrapper request;
+        private final ContentCachingResponseWrapper response;
+        private final AtomicBoolean finished = new AtomicBoolean();
+
+        private Execution(String key, CompletableFuture<StoredResponse> result,
+                          ContentCachingRequestWrapper request, ContentCachingResponseWrapper response) {
+            this.key = key;
+            this.result = result;
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            abandon();
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            abandon();
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+        }
+
+        private void abandon() {
+            if (finished.compareAndSet(false, true)) {
+                responses.invalidate(key, result);
+                result.complete(null);
+            }
+        }
+    }
+}
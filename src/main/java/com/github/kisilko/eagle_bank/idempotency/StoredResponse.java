@@ -0,0 +1,10 @@
+package com.github.kisilko.eagle_bank.idempotency;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A response kept for replay, together with the digest of the request body it answered.
+ */
+record StoredResponse(byte[] requestDigest, int status, Map<String, List<String>> headers, byte[] body) {
+}
@@ -1,36 +1,85 @@
 package com.github.kisilko.eagle_bank.security;
 
+import com.github.kisilko.eagle_bank.audit.AuditEventType;
+import com.github.kisilko.eagle_bank.audit.AuditLog;
+import com.github.kisilko.eagle_bank.user.Role;
 import com.github.kisilko.eagle_bank.user.User;
 import com.github.kisilko.eagle_bank.user.UserService;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.http.HttpStatus;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+@Slf4j
 @RestController
 @RequestMapping("/v1/auth")
-@RequiredArgsConstructor
 class AuthController {
 
     private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JWTService jwtService;
+    private final AuditLog auditLog;
+    private final Executor taskExecutor;
+
+    AuthController(UserService userService,
+                   PasswordHashingService passwordHashingService,
+                   JWTService jwtService,
+                   AuditLog auditLog,
+                   @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor taskExecutor) {
+        this.userService = userService;
+        this.passwordHashingService = passwordHashingService;
+        this.jwtService = jwtService;
+        this.auditLog = auditLog;
+        this.taskExecutor = taskExecutor;
+    }
 
+    /**
+     * Continues on the application task executor once the password is checked, so the hashing pool only ever hashes.
+     * An outdated hash is upgraded in the background and the token is returned without waiting for it.
+     */
     @PostMapping("/login")
-    public String login(@RequestBody LoginRequest request) {
+    public CompletableFuture<String> login(@RequestBody LoginRequest request) {
         User user = userService.findByEmail(request.email())
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials"));
+                .orElseThrow(() -> {
+                    auditLog.record(AuditEventType.LOGIN_FAILED, null, request.email());
+                    return new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+                });
 
-        if (!passwordEncoder.matches(request.password(), user.getPassword())) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
-        }
+        return passwordHashingService.matches(request.password(), user.getPassword())
+                .thenApplyAsync(matches -> {
+                    if (!matches) {
+                        auditLog.record(AuditEventType.LOGIN_FAILED, user.getId(), request.email());
+                        throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid credentials");
+                    }
 
-        String authorities = String.join(",", user.getRoles());
+                    if (passwordHashingService.upgradeEncoding(user.getPassword())) {
+                        upgradePassword(user, request.password());
+                    }
 
-        return jwtService.generateToken(user.getId(), user.getEmail(), authorities);
+                    auditLog.record(AuditEventType.LOGIN_SUCCEEDED, user.getId(), user.getEmail());
+
+                    return jwtService.generateToken(user.getId(), user.getEmail(), Role.toMask(user.getRoles()));
+                }, taskExecutor);
+    }
+
+    private void upgradePassword(User user, String rawPassword) {
+        try {
+            passwordHashingService.encode(rawPassword)
+                    .thenAcceptAsync(upgradedPassword -> userService.upgradePassword(user, upgradedPassword), taskExecutor)
+                    .exceptionally(ex -> {
+                        log.warn("Failed to upgrade password hash of user {}", user.getId(), ex);
+                        return null;
+                    });
+        } catch (PasswordHashingRejectedException ex) {
+            log.debug("Password hash upgrade of user {} postponed, hashing pool is saturated", user.getId());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,61 @@
+package com.github.kisilko.eagle_bank.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Picks the highest bcrypt strength whose hashing time on this machine stays within the target latency.
+ * Each strength step doubles the work, so calibration stops as soon as the next step would exceed the target.
+ */
+@Slf4j
+class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-sample-password";
+    private static final int SAMPLES_PER_STRENGTH = 2;
+
+    private final Duration targetLatency;
+    private final int minStrength;
+    private final int maxStrength;
+
+    BCryptStrengthCalibrator(Duration targetLatency, int minStrength, int maxStrength) {
+        if (minStrength < 4 || maxStrength > 31 || minStrength > maxStrength) {
+            throw new IllegalArgumentException("Invalid bcrypt strength range %s..%s".formatted(minStrength, maxStrength));
+        }
+        this.targetLatency = targetLatency;
+        this.minStrength = minStrength;
+        this.maxStrength = maxStrength;
+    }
+
+    int calibrate() {
+        long targetNanos = targetLatency.toNanos();
+        new BCryptPasswordEncoder(minStrength).encode(SAMPLE_PASSWORD); // warm-up
+
+        int strength = minStrength;
+        long elapsed = measure(strength);
+        while (strength < maxStrength && elapsed * 2 <= targetNanos) {
+            long next = measure(strength + 1);
+            if (next > targetNanos) {
+                break;
+            }
+            strength++;
+            elapsed = next;
+        }
+
+        log.info("Calibrated bcrypt strength {} ({} ms per hash, target {} ms)",
+                strength, Duration.ofNanos(elapsed).toMillis(), targetLatency.toMillis());
+        return strength;
+    }
+
+    private static long measure(int strength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(strength);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < SAMPLES_PER_STRENGTH; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
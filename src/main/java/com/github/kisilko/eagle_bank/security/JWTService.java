@@ -11,19 +11,25 @@ import java.util.Date;
 
 @Service
 class JWTService {
-    @Value("${jwt.secret}")
-    private String jwtSecret; // for demo purpose only
 
-    @Value("${jwt.expiration-ms}")
-    private long expirationMs;
+    private final SecretKey secretKey;
+    private final long expirationMs;
 
-    public String generateToken(Long id, String name, String authorities) {
-        SecretKey secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+    JWTService(@Value("${jwt.secret}") String jwtSecret, // for demo purpose only
+               @Value("${jwt.expiration-ms}") long expirationMs) {
+        this.secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.expirationMs = expirationMs;
+    }
+
+    /**
+     * @param roles the {@link com.github.kisilko.eagle_bank.user.Role} bitmask, carried as the {@code roles} claim
+     */
+    public String generateToken(Long id, String name, int roles) {
         return Jwts.builder().issuer("Eagle Bank")
                 .subject("JWT Token")
                 .claim("id", id)
                 .claim("username", name)
-                .claim("authorities", authorities)
+                .claim("roles", roles)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expirationMs))
                 .signWith(secretKey)
@@ -1,24 +1,17 @@
 package com.github.kisilko.eagle_bank.security;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import org.springframework.beans.factory.annotation.Value;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import javax.crypto.SecretKey;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 
 import static com.github.kisilko.eagle_bank.security.SecurityConstants.AUTHORIZATION_HEADER;
 import static com.github.kisilko.eagle_bank.security.SecurityConstants.BEARER_PREFIX;
@@ -26,8 +19,15 @@ import static com.github.kisilko.eagle_bank.security.SecurityConstants.BEARER_PR
 @Component
 class JWTValidatorFilter extends OncePerRequestFilter {
 
-    @Value("${jwt.secret}")
-    private String jwtSecret; // for demo purpose only
+    private final JWTVerifier jwtVerifier;
+    private final Timer acceptedTimer;
+    private final Timer rejectedTimer;
+
+    JWTValidatorFilter(JWTVerifier jwtVerifier, MeterRegistry meterRegistry) {
+        this.jwtVerifier = jwtVerifier;
+        this.acceptedTimer = verificationTimer(meterRegistry, "accepted");
+        this.rejectedTimer = verificationTimer(meterRegistry, "rejected");
+    }
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
@@ -35,25 +35,12 @@ class JWTValidatorFilter extends OncePerRequestFilter {
         if (header != null && header.startsWith(BEARER_PREFIX)) {
             String jwt = header.substring(BEARER_PREFIX.length());
 
+            Timer.Sample sample = Timer.start();
             try {
-                SecretKey secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
-                Claims claims = Jwts.parser().verifyWith(secretKey).build().parseSignedClaims(jwt).getPayload();
-
-                Long id = Long.valueOf(String.valueOf(claims.get("id")));
-                String username = String.valueOf(claims.get("username"));
-                String authorities = String.valueOf(claims.get("authorities"));
-
-                UserPrincipal principal = new UserPrincipal(
-                        id,
-                        username,
-                        null
-                );
-                Authentication authentication = new UsernamePasswordAuthenticationToken(principal, null,
-                        AuthorityUtils.commaSeparatedStringToAuthorityList(authorities));
-
-                SecurityContextHolder.getContext().setAuthentication(authentication);
-
+                SecurityContextHolder.getContext().setAuthentication(jwtVerifier.verify(jwt));
+                sample.stop(acceptedTimer);
             } catch (Exception e) {
+                sample.stop(rejectedTimer);
                 throw new BadCredentialsException("Invalid Token");
             }
         }
@@ -61,8 +48,21 @@ class JWTValidatorFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        // the async dispatch of a CompletableFuture handler is authorized again, so it needs the authentication too
+        return false;
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) throws ServletException {
         return request.getServletPath().equals("/v1/auth/login");
     }
+
+    private static Timer verificationTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("security.jwt.verification")
+                .description("Time to verify the bearer token of a request")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 }
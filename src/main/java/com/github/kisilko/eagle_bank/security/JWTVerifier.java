@@ -0,0 +1,84 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.github.kisilko.eagle_bank.cache.BoundedCache;
+import com.github.kisilko.eagle_bank.cache.CacheMetrics;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Verifies bearer tokens and keeps the resulting {@link Authentication} until the token expires,
+ * so repeated requests with the same token skip signature verification and claims parsing.
+ */
+@Component
+class JWTVerifier implements MeterBinder {
+
+    private final JwtParser jwtParser;
+    private final BoundedCache<String, Authentication> verifiedTokens;
+
+    JWTVerifier(@Value("${jwt.secret}") String jwtSecret,
+                @Value("${jwt.verified-cache.max-size:10000}") int verifiedCacheMaxSize) {
+        SecretKey secretKey = Keys.hmacShaKeyFor(jwtSecret.getBytes(StandardCharsets.UTF_8));
+        this.jwtParser = Jwts.parser().verifyWith(secretKey).build();
+        this.verifiedTokens = new BoundedCache<>(verifiedCacheMaxSize);
+    }
+
+    public Authentication verify(String jwt) {
+        String tokenDigest = digest(jwt);
+
+        Authentication cached = verifiedTokens.get(tokenDigest);
+        if (cached != null) {
+            return cached;
+        }
+
+        Claims claims = jwtParser.parseSignedClaims(jwt).getPayload();
+        Authentication authentication = toAuthentication(claims);
+
+        Date expiration = claims.getExpiration();
+        if (expiration != null) {
+            verifiedTokens.put(tokenDigest, authentication, expiration.getTime());
+        }
+        return authentication;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMetrics.bind(registry, "jwt.verified-tokens", verifiedTokens);
+    }
+
+    private static Authentication toAuthentication(Claims claims) {
+        Long id = Long.valueOf(String.valueOf(claims.get("id")));
+        String username = String.valueOf(claims.get("username"));
+        int roles = claims.get("roles", Integer.class);
+
+        UserPrincipal principal = new UserPrincipal(
+                id,
+                username,
+                null
+        );
+        return new UsernamePasswordAuthenticationToken(principal, null, RoleAuthorities.of(roles));
+    }
+
+    private static String digest(String jwt) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
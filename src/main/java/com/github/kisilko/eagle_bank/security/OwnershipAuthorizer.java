@@ -0,0 +1,54 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.github.kisilko.eagle_bank.account.AccountOwnershipIndex;
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Checks that the caller owns the user or account a request is about. A check is a comparison with the id of
+ * the {@link UserPrincipal}, with no method-security proxy or expression evaluation; account owners come from the
+ * {@link AccountOwnershipIndex}, so an account does not have to be loaded to be authorized.
+ * <p>
+ * Failed checks throw {@link AccessDeniedException}, which is answered with 403.
+ */
+@Component
+@RequiredArgsConstructor
+public class OwnershipAuthorizer {
+
+    private final AccountOwnershipIndex accountOwnershipIndex;
+
+    /**
+     * @return the id of the authenticated user, or {@code null} for anonymous requests
+     */
+    public Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal ? principal.getId() : null;
+    }
+
+    public boolean isCurrentUser(Long userId) {
+        return userId != null && userId.equals(currentUserId());
+    }
+
+    public void checkUser(Long userId) {
+        if (!isCurrentUser(userId)) {
+            throw new AccessDeniedException("Access denied");
+        }
+    }
+
+    public void checkAccount(BankAccount bankAccount) {
+        checkUser(bankAccount.getUserId());
+    }
+
+    /**
+     * @throws BankAccountNotFoundException if there is no such account, so a missing account is 404 for everyone
+     */
+    public void checkAccount(Long accountId) {
+        checkUser(accountOwnershipIndex.ownerOf(accountId)
+                .orElseThrow(() -> new BankAccountNotFoundException(accountId)));
+    }
+}
@@ -0,0 +1,224 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Limits the request rate of each client per route. Authenticated clients are told apart by user id, anonymous
+ * ones by remote address.
+ * <p>
+ * Every client has one bucket per route, kept as a single {@link AtomicLong} holding the theoretical arrival time
+ * of the generic cell rate algorithm: a request is allowed if that time is at most the burst tolerance ahead of
+ * now, and then moves it one emission interval forward with a CAS. There is no lock and no refill task. A bucket
+ * whose arrival time has passed is full, so dropping it loses nothing; a background sweep does that, which keeps
+ * the map to the clients that were active recently. The map is bounded, and when it is full new clients of a
+ * route share one bucket until the sweep frees room.
+ * <p>
+ * Rejected requests get 429 with {@code Retry-After}; all limited requests get the {@code RateLimit-*} headers.
+ */
+@Component
+class RateLimitFilter extends OncePerRequestFilter {
+
+    static final String LIMIT_HEADER = "RateLimit-Limit";
+    static final String REMAINING_HEADER = "RateLimit-Remaining";
+    static final String RESET_HEADER = "RateLimit-Reset";
+    static final String POLICY_HEADER = "RateLimit-Policy";
+
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final List<LimitedRoute> routes = new ArrayList<>();
+    private final LimitedRoute defaultRoute;
+    private final ConcurrentHashMap<BucketKey, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long origin = System.nanoTime();
+    private final ObjectMapper objectMapper;
+    private final Thread sweeper;
+
+    RateLimitFilter(RateLimitProperties properties, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.maxBuckets = properties.maxBuckets();
+        this.objectMapper = objectMapper;
+        for (RateLimitProperties.Route route : properties.routes()) {
+            routes.add(new LimitedRoute(routes.size(), route.method(), PathPatternParser.defaultInstance.parse(route.path()),
+                    route.limit(), meterRegistry));
+        }
+        this.defaultRoute = properties.defaultLimit() == null ? null
+                : new LimitedRoute(routes.size(), null, null, properties.defaultLimit(), meterRegistry);
+
+        Gauge.builder("security.rate-limit.buckets", buckets, ConcurrentHashMap::size)
+                .description("Clients whose rate limit buckets are not full")
+                .register(meterRegistry);
+
+        long sweepIntervalMillis = properties.sweepInterval().toMillis();
+        this.sweeper = !enabled ? null : Thread.ofPlatform().name("rate-limit-sweeper").daemon().start(() -> {
+            try {
+                while (true) {
+                    Thread.sleep(sweepIntervalMillis);
+                    long now = now();
+                    buckets.values().removeIf(bucket -> bucket.get() <= now);
+                }
+            } catch (InterruptedException e) {
+                // shutting down
+            }
+        });
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        LimitedRoute route = route(request);
+        if (route == null || route.emissionNanos == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        long now = now();
+        AtomicLong bucket = bucket(route, client(request));
+        long waitNanos = route.acquire(bucket, now);
+
+        response.setHeader(LIMIT_HEADER, route.requests);
+        response.setHeader(POLICY_HEADER, route.policy);
+        response.setHeader(REMAINING_HEADER, Long.toString(route.remaining(bucket, now)));
+        response.setHeader(RESET_HEADER, Long.toString(seconds(Math.max(bucket.get(), now) - now)));
+        if (waitNanos > 0) {
+            route.rejected.increment();
+            response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(seconds(waitNanos)));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(),
+                    ProblemDetail.forStatusAndDetail(HttpStatus.TOO_MANY_REQUESTS, "Rate limit exceeded"));
+            return;
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (sweeper != null) {
+            sweeper.interrupt();
+        }
+    }
+
+    private LimitedRoute route(HttpServletRequest request) {
+        if (!routes.isEmpty()) {
+            PathContainer path = PathContainer.parsePath(UrlPathHelper.defaultInstance.getPathWithinApplication(request));
+            for (LimitedRoute route : routes) {
+                if ((route.method == null || route.method.equalsIgnoreCase(request.getMethod())) && route.pattern.matches(path)) {
+                    return route;
+                }
+            }
+        }
+        return defaultRoute;
+    }
+
+    private AtomicLong bucket(LimitedRoute route, Object client) {
+        BucketKey key = new BucketKey(route.index, client);
+        AtomicLong bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            return route.overflow;
+        }
+        return buckets.computeIfAbsent(key, k -> new AtomicLong());
+    }
+
+    private long now() {
+        return System.nanoTime() - origin;
+    }
+
+    private static Object client(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return principal.getId();
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static long seconds(long nanos) {
+        return (nanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @param client a user id, or the remote address of an anonymous client
+     */
+    private record BucketKey(int route, Object client) {
+    }
+
+    private static final class LimitedRoute {
+
+        private final int index;
+        private final String method;
+        private final PathPattern pattern;
+        private final long emissionNanos;
+        private final long toleranceNanos;
+        private final String requests;
+        private final String policy;
+        private final AtomicLong overflow = new AtomicLong();
+        private final Counter rejected;
+
+        private LimitedRoute(int index, String method, PathPattern pattern, RateLimitProperties.Limit limit, MeterRegistry meterRegistry) {
+            this.index = index;
+            this.method = method;
+            this.pattern = pattern;
+            this.emissionNanos = limit == null ? 0 : Math.max(1, limit.period().toNanos() / limit.requests());
+            this.toleranceNanos = limit == null ? 0 : emissionNanos * (limit.burst() - 1);
+            this.requests = limit == null ? null : Long.toString(limit.requests());
+            this.policy = limit == null ? null : "%s;w=%s".formatted(limit.requests(), Math.max(1, limit.period().toSeconds()));
+            this.rejected = Counter.builder("security.rate-limit.rejected")
+                    .description("Requests rejected because the client exceeded the rate limit of the route")
+                    .tag("route", pattern == null ? "default" : (method == null ? "" : method + " ") + pattern.getPatternString())
+                    .register(meterRegistry);
+        }
+
+        /**
+         * @return 0 if the request is allowed, otherwise how long the client has to wait
+         */
+        private long acquire(AtomicLong bucket, long now) {
+            while (true) {
+                long arrival = bucket.get();
+                long start = Math.max(arrival, now);
+                if (start - now > toleranceNanos) {
+                    return start - now - toleranceNanos;
+                }
+                if (bucket.compareAndSet(arrival, start + emissionNanos)) {
+                    return 0;
+                }
+            }
+        }
+
+        private long remaining(AtomicLong bucket, long now) {
+            return Math.max(0, (toleranceNanos + emissionNanos - (Math.max(bucket.get(), now) - now)) / emissionNanos);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.kisilko.eagle_bank.security;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * @param maxBuckets    clients tracked at once; when they are all busy, new clients of a route share one bucket
+ * @param sweepInterval how often buckets that have refilled completely are dropped
+ * @param defaultLimit  limit of requests that match no route, or {@code null} to not limit them
+ * @param routes        checked in order, the first match applies
+ */
+@ConfigurationProperties("security.rate-limit")
+record RateLimitProperties(boolean enabled,
+                           @DefaultValue("100000") int maxBuckets,
+                           @DefaultValue("30s") Duration sweepInterval,
+                           Limit defaultLimit,
+                           @DefaultValue List<Route> routes) {
+
+    /**
+     * @param method any method if {@code null}
+     * @param path   a path pattern such as {@code /v1/users/**}
+     * @param limit  {@code null} to exempt the route
+     */
+    record Route(String method, String path, Limit limit) {
+    }
+
+    /**
+     * Allows {@code requests} per {@code period} on average, and up to {@code burst} requests at once.
+     *
+     * @param burst defaults to {@code requests}
+     */
+    record Limit(long requests, @DefaultValue("1s") Duration period, int burst) {
+
+        Limit {
+            if (requests <= 0 || period.isNegative() || period.isZero()) {
+                throw new IllegalArgumentException("A rate limit needs a positive number of requests and a positive period");
+            }
+            if (burst <= 0) {
+                burst = (int) Math.min(requests, Integer.MAX_VALUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.github.kisilko.eagle_bank.security;
+
+import com.github.kisilko.eagle_bank.user.Role;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Granted authorities for every combination of roles, built once and shared by all authentications.
+ */
+final class RoleAuthorities {
+
+    private static final List<List<GrantedAuthority>> BY_MASK = build();
+
+    private RoleAuthorities() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the mask has bits of no role
+     */
+    static List<GrantedAuthority> of(int mask) {
+        if (mask < 0 || mask >= BY_MASK.size() || (mask & ~Role.allBits()) != 0) {
+            throw new IllegalArgumentException("Unknown role bits in %s".formatted(mask));
+        }
+        return BY_MASK.get(mask);
+    }
+
+    private static List<List<GrantedAuthority>> build() {
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        for (Role role : Role.values()) {
+            authorities.add(new SimpleGrantedAuthority(role.name()));
+        }
+
+        int size = Integer.highestOneBit(Role.allBits()) << 1;
+        List<List<GrantedAuthority>> byMask = new ArrayList<>(size);
+        for (int mask = 0; mask < size; mask++) {
+            List<GrantedAuthority> granted = new ArrayList<>();
+            for (Role role : Role.values()) {
+                if ((mask & role.bit()) != 0) {
+                    granted.add(authorities.get(role.ordinal()));
+                }
+            }
+            byMask.add(List.copyOf(granted));
+        }
+        return List.copyOf(byMask);
+    }
+}
@@ -1,45 +1,71 @@
 package com.github.kisilko.eagle_bank.security;
 
+import com.github.kisilko.eagle_bank.idempotency.IdempotencyFilter;
+import com.github.kisilko.eagle_bank.user.Role;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.core.GrantedAuthorityDefaults;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 
+import java.time.Duration;
+import java.util.Map;
+
 @Configuration
 @EnableWebSecurity
-@EnableMethodSecurity
+@EnableConfigurationProperties(RateLimitProperties.class)
 @RequiredArgsConstructor
 class SecurityConfig {
 
     private final JWTValidatorFilter jwtValidatorFilter;
+    private final RateLimitFilter rateLimitFilter;
+    private final IdempotencyFilter idempotencyFilter;
 
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return http.csrf(AbstractHttpConfigurer::disable)
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers(HttpMethod.POST, "/v1/users").permitAll() // allow user creation
+                        .requestMatchers(HttpMethod.POST, "/v1/users:import").hasAuthority(Role.ADMIN.name())
+                        .requestMatchers("/v1/admin/**").hasAuthority(Role.ADMIN.name())
                         .requestMatchers("/", "/healthcheck/**", "/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/v1/auth/**").permitAll()
                         .anyRequest().authenticated()
                 )
                 .addFilterBefore(jwtValidatorFilter, BasicAuthenticationFilter.class)
+                .addFilterAfter(rateLimitFilter, JWTValidatorFilter.class) // keyed by the authenticated user when there is one
+                .addFilterAfter(idempotencyFilter, AuthorizationFilter.class) // only authorized requests are recorded
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .build();
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return PasswordEncoderFactories.createDelegatingPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.password-hashing.strength:0}") int fixedStrength,
+                                           @Value("${security.password-hashing.target-latency-ms:250}") long targetLatencyMs,
+                                           @Value("${security.password-hashing.min-strength:10}") int minStrength,
+                                           @Value("${security.password-hashing.max-strength:16}") int maxStrength) {
+        int strength = fixedStrength > 0
+                ? fixedStrength
+                : new BCryptStrengthCalibrator(Duration.ofMillis(targetLatencyMs), minStrength, maxStrength).calibrate();
+
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new BCryptPasswordEncoder(strength)));
+        // hashes stored with other algorithms still match, and are reported by upgradeEncoding()
+        passwordEncoder.setDefaultPasswordEncoderForMatches(PasswordEncoderFactories.createDelegatingPasswordEncoder());
+        return passwordEncoder;
     }
 
     @Bean
@@ -0,0 +1,192 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Which database holds the accounts of a user, and the means to work on it.
+ * <p>
+ * Accounts and their transactions live on the shard of their owner, which is picked by a {@link ConsistentHashRing}
+ * over the user id, unless the user's accounts have not been moved there yet since shards were added. Such users
+ * are found at startup, by listing the owners on every shard, and read and written where they are until
+ * {@link ShardRebalancer} moves them. Code that touches accounts runs inside {@link #onShardOf} or {@link #onShard},
+ * which point the application data source at the shard for the current thread; anything else uses the main database.
+ * <p>
+ * Work on a user's accounts holds a read lock of the user, which {@link ShardRebalancer} takes for writing while it
+ * moves them, so nothing reads a shard the accounts have just left. The locks are in-process only.
+ * <p>
+ * Without sharding there is one shard, {@value #DEFAULT_SHARD}, backed by the main database.
+ */
+@Slf4j
+public class AccountShards implements MeterBinder {
+
+    public static final String DEFAULT_SHARD = "default";
+
+    private static final ThreadLocal<String> CURRENT_SHARD = new ThreadLocal<>();
+
+    private final Map<String, DataSource> dataSources;
+    private final ConsistentHashRing ring;
+    private final ReentrantReadWriteLock[] stripes;
+    private final Map<Long, String> relocatedUsers = new ConcurrentHashMap<>();
+
+    AccountShards(Map<String, ? extends DataSource> dataSources, int virtualNodes, int lockStripes) {
+        this.dataSources = new LinkedHashMap<>(dataSources);
+        this.ring = new ConsistentHashRing(dataSources.keySet(), virtualNodes);
+        this.stripes = new ReentrantReadWriteLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    @PostConstruct
+    void findRelocatedUsers() {
+        if (dataSources.size() == 1) {
+            return;
+        }
+        long start = System.nanoTime();
+        dataSources.forEach((shard, dataSource) -> new JdbcTemplate(dataSource).query(
+                "select distinct user_id from accounts where user_id is not null",
+                resultSet -> {
+                    long userId = resultSet.getLong(1);
+                    if (!ring.nodeFor(userId).equals(shard)) {
+                        String previous = relocatedUsers.putIfAbsent(userId, shard);
+                        if (previous != null) {
+                            log.warn("Accounts of user {} are on shards {} and {}, using {}", userId, previous, shard, previous);
+                        }
+                    }
+                }));
+        log.info("Found {} users whose accounts are not on their shard yet in {} ms",
+                relocatedUsers.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    public List<String> shards() {
+        return ring.nodes();
+    }
+
+    /**
+     * Where the accounts of the user are now; hold a lock of the user for the answer to stay true.
+     */
+    public String shardOf(Long userId) {
+        String relocated = relocatedUsers.get(userId);
+        return relocated != null ? relocated : ring.nodeFor(userId);
+    }
+
+    /**
+     * Runs the action on the shard of the user, holding the user's lock.
+     */
+    public <T> T onShardOf(Long userId, Supplier<T> action) {
+        try (UserLocks ignored = lockUsers(List.of(userId))) {
+            return onShard(shardOf(userId), action);
+        }
+    }
+
+    /**
+     * Runs the action with the application data source pointing at the shard. The caller holds the locks of the
+     * users involved. Transactions must start inside the action; one that is already open stays on its database,
+     * which is why switching to another shard from inside an action is rejected.
+     */
+    public <T> T onShard(String shard, Supplier<T> action) {
+        if (!dataSources.containsKey(shard)) {
+            throw new IllegalArgumentException("Unknown shard " + shard);
+        }
+        String current = CURRENT_SHARD.get();
+        if (current != null && !current.equals(shard)) {
+            throw new IllegalStateException("Cannot switch to shard %s while working on shard %s".formatted(shard, current));
+        }
+        CURRENT_SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (current == null) {
+                CURRENT_SHARD.remove();
+            }
+        }
+    }
+
+    /**
+     * Takes the read locks of the users in ascending stripe order, so callers locking several users never wait
+     * on each other in a cycle.
+     */
+    public UserLocks lockUsers(Collection<Long> userIds) {
+        int[] ordered = userIds.stream()
+                .mapToInt(this::stripe)
+                .distinct()
+                .sorted()
+                .toArray();
+
+        Lock[] locks = new Lock[ordered.length];
+        for (int i = 0; i < ordered.length; i++) {
+            locks[i] = stripes[ordered[i]].readLock();
+            locks[i].lock();
+        }
+        return new UserLocks(locks);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("accounts.shards.relocated-users", relocatedUsers, Map::size)
+                .description("Users whose accounts are waiting to be moved to their shard")
+                .register(registry);
+    }
+
+    static String currentShard() {
+        return CURRENT_SHARD.get();
+    }
+
+    String ringShardOf(Long userId) {
+        return ring.nodeFor(userId);
+    }
+
+    DataSource dataSource(String shard) {
+        return dataSources.get(shard);
+    }
+
+    Lock writeLockOf(Long userId) {
+        return stripes[stripe(userId)].writeLock();
+    }
+
+    /**
+     * Records that the accounts of the user are now on the given shard.
+     */
+    void relocate(Long userId, String shard) {
+        if (ring.nodeFor(userId).equals(shard)) {
+            relocatedUsers.remove(userId);
+        } else {
+            relocatedUsers.put(userId, shard);
+        }
+    }
+
+    private int stripe(Long userId) {
+        return Math.floorMod(userId.hashCode(), stripes.length);
+    }
+
+    public static final class UserLocks implements AutoCloseable {
+
+        private final Lock[] locks;
+
+        private UserLocks(Lock[] locks) {
+            this.locks = locks;
+        }
+
+        @Override
+        public void close() {
+            for (int i = locks.length - 1; i >= 0; i--) {
+                locks[i].unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Maps keys to nodes so that adding a node only takes keys from the others in proportion to its share, and
+ * every other key stays where it was.
+ * <p>
+ * Each node is placed on a ring of 64-bit hashes at {@code virtualNodes} points, and a key belongs to the first
+ * point at or after its own hash. With enough points per node the keys spread evenly even over a few nodes. The
+ * points are kept in a sorted array, so a lookup is one binary search and the ring is immutable.
+ */
+public class ConsistentHashRing {
+
+    private final List<String> nodes;
+    private final long[] points;
+    private final String[] owners;
+
+    public ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (nodes.isEmpty()) {
+            throw new IllegalArgumentException("A ring needs at least one node");
+        }
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("virtualNodes must be positive");
+        }
+        this.nodes = List.copyOf(nodes);
+
+        long[][] entries = new long[this.nodes.size() * virtualNodes][];
+        int i = 0;
+        for (int node = 0; node < this.nodes.size(); node++) {
+            for (int point = 0; point < virtualNodes; point++) {
+                entries[i++] = new long[]{hash(this.nodes.get(node) + '#' + point), node};
+            }
+        }
+        Arrays.sort(entries, (a, b) -> Long.compare(a[0], b[0]));
+
+        this.points = new long[entries.length];
+        this.owners = new String[entries.length];
+        for (i = 0; i < entries.length; i++) {
+            points[i] = entries[i][0];
+            owners[i] = this.nodes.get((int) entries[i][1]);
+        }
+    }
+
+    public String nodeFor(long key) {
+        int index = Arrays.binarySearch(points, mix(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over the UTF-8 bytes, then mixed like the keys
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        // SplitMix64 finalizer, so consecutive ids land far apart on the ring
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+}
@@ -0,0 +1,58 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * The millisecond up to which a {@link SnowflakeIdGenerator} may have handed out ids, kept in a file so a restarted
+ * generator does not hand them out again. The value is written in place and synced before it is relied on, and a
+ * file too short to hold it was never relied on.
+ */
+class IdHighWaterMark {
+
+    private final Path file;
+
+    IdHighWaterMark(Path file) {
+        this.file = file;
+    }
+
+    /**
+     * @return the milliseconds since {@link SnowflakeIdGenerator#EPOCH_MILLIS}, or -1 if none were written yet
+     */
+    long read() {
+        try {
+            if (!Files.exists(file)) {
+                return -1;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+                    // until the value is complete or the file ends
+                }
+            }
+            return buffer.hasRemaining() ? -1 : buffer.flip().getLong();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read the id high-water mark " + file, e);
+        }
+    }
+
+    void write(long millis) {
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).putLong(millis).flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, buffer.position());
+                }
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write the id high-water mark " + file, e);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import java.util.Map;
+
+/**
+ * The connection pools of the shards by name, closed with the application context.
+ */
+record ShardDataSources(Map<String, HikariDataSource> pools) implements AutoCloseable {
+
+    @Override
+    public void close() {
+        pools.values().forEach(HikariDataSource::close);
+    }
+}
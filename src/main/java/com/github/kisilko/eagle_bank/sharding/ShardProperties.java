@@ -0,0 +1,28 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.util.List;
+
+/**
+ * Databases that accounts and their transactions are spread over once {@code enabled} is set.
+ *
+ * @param virtualNodes     points of each shard on the hash ring
+ * @param lockStripes      locks that keep a user's accounts from moving while they are used
+ * @param initializeSchema create the account tables on each shard at startup if they do not exist
+ */
+@ConfigurationProperties("accounts.sharding")
+record ShardProperties(boolean enabled,
+                       @DefaultValue List<Shard> shards,
+                       @DefaultValue("256") int virtualNodes,
+                       @DefaultValue("1024") int lockStripes,
+                       @DefaultValue("true") boolean initializeSchema,
+                       @DefaultValue("10") int maximumPoolSize) {
+
+    /**
+     * @param name identifies the shard on the ring, so renaming a shard moves its users
+     */
+    record Shard(String name, String url, String username, String password, String driverClassName) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/v1/admin/shards:rebalance")
+@RequiredArgsConstructor
+class ShardRebalanceController {
+
+    private final ShardRebalancer shardRebalancer;
+
+    @Operation(summary = "Move accounts to their shard", description = "Run after adding shards; accounts stay usable where they are until moved")
+    @ApiResponse(responseCode = "200", description = "Accounts moved")
+    @ApiResponse(responseCode = "403", description = "Forbidden")
+    @PostMapping
+    public ShardRebalanceReport rebalance() {
+        return shardRebalancer.rebalance();
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+/**
+ * What a run of {@link ShardRebalancer} moved.
+ */
+record ShardRebalanceReport(int users, long accounts, long transactions) {
+}
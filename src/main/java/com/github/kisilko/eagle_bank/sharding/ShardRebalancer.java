@@ -0,0 +1,175 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the accounts of users to the shard the ring assigns them, after shards were added or renamed.
+ * <p>
+ * Users are moved one at a time while holding their lock, so their accounts are unavailable on this instance only
+ * for the duration of their own move. The accounts and their transactions are first copied to the target in one
+ * transaction, replacing copies an interrupted earlier move may have left there, then deleted from the source,
+ * and only then is the user routed to the target. A move that stops half way is therefore completed by running
+ * the rebalancer again. The locks are in-process, so other instances must not serve requests during a rebalance.
+ * One rebalance runs at a time.
+ */
+@Slf4j
+@Component
+class ShardRebalancer {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final AccountShards accountShards;
+    private final Map<String, JdbcTemplate> jdbcTemplates;
+    private final Map<String, TransactionTemplate> transactionTemplates;
+    // not a synchronized method, which would pin the virtual thread for the whole rebalance
+    private final Lock rebalanceLock = new ReentrantLock();
+
+    ShardRebalancer(AccountShards accountShards) {
+        this.accountShards = accountShards;
+        this.jdbcTemplates = accountShards.shards().stream()
+                .collect(Collectors.toMap(shard -> shard, shard -> new JdbcTemplate(accountShards.dataSource(shard))));
+        this.transactionTemplates = accountShards.shards().stream()
+                .collect(Collectors.toMap(shard -> shard, shard -> new TransactionTemplate(new DataSourceTransactionManager(accountShards.dataSource(shard)))));
+    }
+
+    ShardRebalanceReport rebalance() {
+        rebalanceLock.lock();
+        try {
+            if (accountShards.shards().size() == 1) {
+                return new ShardRebalanceReport(0, 0, 0);
+            }
+
+            long start = System.nanoTime();
+            int users = 0;
+            long accounts = 0;
+            long transactions = 0;
+            for (String shard : accountShards.shards()) {
+                for (Long userId : misplacedUsers(shard)) {
+                    long[] moved = move(userId, shard, accountShards.ringShardOf(userId));
+                    users++;
+                    accounts += moved[0];
+                    transactions += moved[1];
+                }
+            }
+            log.info("Moved the accounts of {} users ({} accounts, {} transactions) in {} ms",
+                    users, accounts, transactions, (System.nanoTime() - start) / 1_000_000);
+            return new ShardRebalanceReport(users, accounts, transactions);
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    private List<Long> misplacedUsers(String shard) {
+        List<Long> userIds = jdbcTemplates.get(shard)
+                .queryForList("select distinct user_id from accounts where user_id is not null", Long.class);
+        return userIds.stream()
+                .filter(userId -> !accountShards.ringShardOf(userId).equals(shard))
+                .toList();
+    }
+
+    /**
+     * @return the number of accounts and of transactions moved
+     */
+    private long[] move(Long userId, String from, String to) {
+        JdbcTemplate source = jdbcTemplates.get(from);
+        JdbcTemplate target = jdbcTemplates.get(to);
+
+        Lock lock = accountShards.writeLockOf(userId);
+        lock.lock();
+        try {
+            List<Long> accountIds = source.queryForList("select id from accounts where user_id = ?", Long.class, userId);
+            long[] moved = transactionTemplates.get(to).execute(status -> {
+                List<Object[]> ids = accountIds.stream().map(id -> new Object[]{id}).toList();
+                target.batchUpdate("delete from transactions where account_id = ?", ids);
+                target.batchUpdate("delete from accounts where id = ?", ids);
+                return new long[]{
+                        copy(source, target, "accounts", "select * from accounts where user_id = ?", userId),
+                        copy(source, target, "transactions",
+                                "select t.* from transactions t join accounts a on a.id = t.account_id where a.user_id = ? order by t.id", userId)
+                };
+            });
+            transactionTemplates.get(from).executeWithoutResult(status -> {
+                source.update("delete from transactions where account_id in (select id from accounts where user_id = ?)", userId);
+                source.update("delete from accounts where user_id = ?", userId);
+            });
+            accountShards.relocate(userId, to);
+            log.debug("Moved the accounts of user {} from shard {} to shard {}", userId, from, to);
+            return moved;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static long copy(JdbcTemplate source, JdbcTemplate target, String table, String query, Long userId) {
+        TableCopy copy = new TableCopy(target, table);
+        source.query(query, copy, userId);
+        copy.flush();
+        return copy.rows;
+    }
+
+    /**
+     * Inserts the rows it is given into the same table of another database, a batch at a time.
+     */
+    private static final class TableCopy implements RowCallbackHandler {
+
+        private final JdbcTemplate target;
+        private final String table;
+        private final List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        private String insert;
+        private long rows;
+
+        private TableCopy(JdbcTemplate target, String table) {
+            this.target = target;
+            this.table = table;
+        }
+
+        @Override
+        public void processRow(ResultSet resultSet) throws SQLException {
+            ResultSetMetaData metaData = resultSet.getMetaData();
+            if (insert == null) {
+                insert = insertInto(table, metaData);
+            }
+            Object[] row = new Object[metaData.getColumnCount()];
+            for (int i = 0; i < row.length; i++) {
+                row[i] = resultSet.getObject(i + 1);
+            }
+            batch.add(row);
+            if (batch.size() == BATCH_SIZE) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (!batch.isEmpty()) {
+                target.batchUpdate(insert, batch);
+                rows += batch.size();
+                batch.clear();
+            }
+        }
+
+        private static String insertInto(String table, ResultSetMetaData metaData) throws SQLException {
+            List<String> columns = new ArrayList<>(metaData.getColumnCount());
+            for (int i = 1; i <= metaData.getColumnCount(); i++) {
+                columns.add(metaData.getColumnName(i));
+            }
+            return "insert into %s (%s) values (%s)".formatted(
+                    table, String.join(", ", columns), String.join(", ", Collections.nCopies(columns.size(), "?")));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The application data source when accounts are sharded: the shard {@link AccountShards#onShard} set for the
+ * current thread, or the main database outside of it.
+ */
+class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    ShardRoutingDataSource(DataSource main, Map<String, ? extends DataSource> shards) {
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(main);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return AccountShards.currentShard();
+    }
+}
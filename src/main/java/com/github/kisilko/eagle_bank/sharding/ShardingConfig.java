@@ -0,0 +1,102 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Spreads accounts over the databases under {@code accounts.sharding.shards} when {@code accounts.sharding.enabled}
+ * is set, and keeps them in the main database otherwise.
+ * <p>
+ * When sharded, the application data source is a {@link ShardRoutingDataSource} over the main database and the
+ * shards, each shard with a pool of {@code accounts.sharding.maximum-pool-size} connections. The account tables
+ * are created on the shards from {@code db/account-shard.sql}.
+ */
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardProperties.class)
+class ShardingConfig {
+
+    private static final String SCHEMA = "db/account-shard.sql";
+
+    @Bean
+    @ConditionalOnProperty(prefix = "accounts.sharding", name = "enabled", havingValue = "false", matchIfMissing = true)
+    AccountShards unshardedAccounts(DataSource dataSource, ShardProperties properties) {
+        return new AccountShards(Map.of(AccountShards.DEFAULT_SHARD, dataSource), 1, properties.lockStripes());
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "accounts.sharding", name = "enabled", havingValue = "true")
+    static class Sharded {
+
+        Sharded(Environment environment) {
+            if (environment.containsProperty("datasource.replica.url")) {
+                throw new IllegalStateException("Sharded accounts cannot be combined with a read replica, unset datasource.replica.url");
+            }
+        }
+
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        HikariDataSource mainDataSource(DataSourceProperties properties) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            dataSource.setPoolName("main");
+            return dataSource;
+        }
+
+        @Bean
+        ShardDataSources shardDataSources(ShardProperties properties, MeterRegistry meterRegistry) {
+            if (properties.shards().isEmpty()) {
+                throw new IllegalStateException("accounts.sharding.enabled is set but no shards are configured");
+            }
+            Map<String, HikariDataSource> pools = new LinkedHashMap<>();
+            for (ShardProperties.Shard shard : properties.shards()) {
+                HikariDataSource pool = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(shard.url())
+                        .username(shard.username())
+                        .password(shard.password())
+                        .driverClassName(shard.driverClassName())
+                        .build();
+                pool.setPoolName("shard-" + shard.name());
+                pool.setMaximumPoolSize(properties.maximumPoolSize());
+                pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+                if (pools.putIfAbsent(shard.name(), pool) != null) {
+                    throw new IllegalStateException("Shard %s is configured twice".formatted(shard.name()));
+                }
+            }
+
+            ShardDataSources shardDataSources = new ShardDataSources(pools);
+            if (properties.initializeSchema()) {
+                ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource(SCHEMA));
+                pools.values().forEach(schema::execute);
+            }
+            return shardDataSources;
+        }
+
+        @Bean
+        AccountShards accountShards(ShardDataSources shardDataSources, ShardProperties properties) {
+            return new AccountShards(shardDataSources.pools(), properties.virtualNodes(), properties.lockStripes());
+        }
+
+        @Bean
+        @Primary
+        DataSource dataSource(@Qualifier("mainDataSource") DataSource mainDataSource, ShardDataSources shardDataSources) {
+            return new ShardRoutingDataSource(mainDataSource, shardDataSources.pools());
+        }
+    }
+}
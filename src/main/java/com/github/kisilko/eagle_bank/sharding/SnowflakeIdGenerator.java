@@ -0,0 +1,162 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.AnnotationBasedGenerator;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+import org.hibernate.generator.GeneratorCreationContext;
+
+import java.lang.reflect.Member;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Time-ordered ids that are unique across shards and instances without a central sequence.
+ * <p>
+ * An id has 53 bits, so it stays exact as a JSON number: 41 bits of milliseconds since 2025, which last until
+ * 2094, then 4 bits of node id and 8 bits of sequence, for 256 ids per millisecond per node. Every running
+ * instance needs its own node id, set with {@value #NODE_ID_SETTING} among the Hibernate properties. When a
+ * millisecond runs out of ids the generator moves on to the next one instead of waiting for the clock, and as
+ * the clock catches up the ids go back to following it; the same holds when the clock goes backwards while the
+ * instance is running.
+ * <p>
+ * Across restarts, ids are kept from repeating by an {@link IdHighWaterMark} per node and entity in
+ * {@value #DIRECTORY_SETTING}: before handing out ids of a millisecond past the mark, the generator moves the
+ * mark {@value #RESERVE_SETTING} ahead. A generator starting behind the mark, because the clock went back or
+ * the previous run had moved ahead of it, waits for the clock to pass the mark, or refuses to start when that
+ * would take longer than {@value #MAX_CLOCK_WAIT_SETTING}.
+ * <p>
+ * Hibernate asks the Spring bean container for generators, which autowires constructor parameters, so the
+ * generator has no constructor arguments and reads its node id in {@link #initialize}.
+ */
+public class SnowflakeIdGenerator implements BeforeExecutionGenerator, AnnotationBasedGenerator<SnowflakeId> {
+
+    public static final String NODE_ID_SETTING = "ids.node-id";
+    public static final String DIRECTORY_SETTING = "ids.directory";
+    public static final String RESERVE_SETTING = "ids.reserve-ms";
+    public static final String MAX_CLOCK_WAIT_SETTING = "ids.max-clock-wait-ms";
+
+    static final long EPOCH_MILLIS = Instant.parse("2025-01-01T00:00:00Z").toEpochMilli();
+    static final int NODE_BITS = 4;
+    static final int SEQUENCE_BITS = 8;
+    static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+
+    private long node;
+    // milliseconds since the epoch shifted left by SEQUENCE_BITS, plus the sequence within that millisecond
+    private final AtomicLong lastState = new AtomicLong();
+
+    private IdHighWaterMark highWaterMark;
+    private long reserveMillis;
+    // ids of earlier milliseconds may be handed out without writing the high-water mark
+    private volatile long reservedUntil = Long.MAX_VALUE;
+    private final ReentrantLock reserveLock = new ReentrantLock();
+
+    public SnowflakeIdGenerator() {
+    }
+
+    /**
+     * A generator that does not keep a high-water mark, for tests.
+     */
+    SnowflakeIdGenerator(long node) {
+        this.node = checkNode(node);
+    }
+
+    SnowflakeIdGenerator(long node, IdHighWaterMark highWaterMark, long reserveMillis, long maxClockWaitMillis) {
+        this.node = checkNode(node);
+        start(highWaterMark, reserveMillis, maxClockWaitMillis);
+    }
+
+    @Override
+    public void initialize(SnowflakeId config, Member member, GeneratorCreationContext context) {
+        ConfigurationService settings = context.getServiceRegistry().requireService(ConfigurationService.class);
+        this.node = checkNode(settings.getSetting(NODE_ID_SETTING, StandardConverters.INTEGER, 0));
+        Path directory = Path.of(settings.getSetting(DIRECTORY_SETTING, StandardConverters.STRING, "ids"));
+        start(new IdHighWaterMark(directory.resolve("node-%d-%s".formatted(node, member.getDeclaringClass().getSimpleName()))),
+                settings.getSetting(RESERVE_SETTING, StandardConverters.INTEGER, 100),
+                settings.getSetting(MAX_CLOCK_WAIT_SETTING, StandardConverters.INTEGER, 10_000));
+    }
+
+    private void start(IdHighWaterMark highWaterMark, long reserveMillis, long maxClockWaitMillis) {
+        if (reserveMillis < 1) {
+            throw new IllegalArgumentException(RESERVE_SETTING + " must be positive");
+        }
+        long mark = highWaterMark.read();
+        long behind = mark - currentMillis();
+        if (behind >= 0) {
+            if (behind > maxClockWaitMillis) {
+                throw new IllegalStateException(("The clock is %d ms behind the ids handed out before by node %d, "
+                        + "more than %s allows").formatted(behind, node, MAX_CLOCK_WAIT_SETTING));
+            }
+            sleep(behind + 1);
+        }
+        // even if the clock is still behind, the next id is past the mark
+        lastState.set(((mark + 1) << SEQUENCE_BITS) - 1);
+        this.highWaterMark = highWaterMark;
+        this.reserveMillis = reserveMillis;
+        this.reservedUntil = mark + 1;
+    }
+
+    private static long checkNode(long node) {
+        if (node < 0 || node > MAX_NODE_ID) {
+            throw new IllegalArgumentException("%s must be between 0 and %s".formatted(NODE_ID_SETTING, MAX_NODE_ID));
+        }
+        return node;
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return nextId();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    long nextId() {
+        long now = currentMillis() << SEQUENCE_BITS;
+        long state = lastState.updateAndGet(last -> Math.max(last + 1, now));
+        long millis = state >>> SEQUENCE_BITS;
+        if (millis >= reservedUntil) {
+            reserve(millis);
+        }
+        long sequence = state & ((1L << SEQUENCE_BITS) - 1);
+        return millis << (NODE_BITS + SEQUENCE_BITS) | node << SEQUENCE_BITS | sequence;
+    }
+
+    /**
+     * Moves the high-water mark past the given millisecond before any of its ids is handed out. A lock rather than
+     * {@code synchronized}, so virtual threads waiting for the write do not pin their carriers.
+     */
+    private void reserve(long millis) {
+        reserveLock.lock();
+        try {
+            if (millis >= reservedUntil) {
+                long until = millis + reserveMillis;
+                highWaterMark.write(until);
+                reservedUntil = until + 1;
+            }
+        } finally {
+            reserveLock.unlock();
+        }
+    }
+
+    private static long currentMillis() {
+        return System.currentTimeMillis() - EPOCH_MILLIS;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the clock to pass the id high-water mark", e);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Striped in-process locks over account ids. Callers that change several accounts take all their stripes
+ * through {@link #withLocks}, which always acquires them in ascending stripe order, so two callers can never
+ * wait on each other in a cycle.
+ */
+@Component
+class AccountLocks {
+
+    private final ReentrantLock[] stripes;
+
+    AccountLocks(@Value("${transactions.locks.stripes:1024}") int stripeCount) {
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    <T> T withLocks(Collection<Long> accountIds, Supplier<T> action) {
+        int[] ordered = accountIds.stream()
+                .mapToInt(accountId -> Math.floorMod(accountId.hashCode(), stripes.length))
+                .distinct()
+                .sorted()
+                .toArray();
+
+        int locked = 0;
+        try {
+            for (int stripe : ordered) {
+                stripes[stripe].lock();
+                locked++;
+            }
+            return action.get();
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[ordered[i]].unlock();
+            }
+        }
+    }
+}
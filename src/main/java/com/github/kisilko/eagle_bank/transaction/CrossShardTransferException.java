@@ -0,0 +1,7 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+class CrossShardTransferException extends RuntimeException {
+    public CrossShardTransferException(Long fromAccountId, Long toAccountId) {
+        super("Cannot transfer from account %s to account %s, they are kept in different databases".formatted(fromAccountId, toAccountId));
+    }
+}
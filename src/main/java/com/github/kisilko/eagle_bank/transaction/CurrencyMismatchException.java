@@ -0,0 +1,7 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+class CurrencyMismatchException extends RuntimeException {
+    public CurrencyMismatchException(String fromCurrency, String toCurrency) {
+        super("Cannot transfer from a %s account to a %s account".formatted(fromCurrency, toCurrency));
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+class InsufficientFundsException extends RuntimeException {
+    public InsufficientFundsException(Long accountId) {
+        super("Insufficient funds in account %s".formatted(accountId));
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+class InvalidStatementRequestException extends RuntimeException {
+    public InvalidStatementRequestException(String message) {
+        super(message);
+    }
+}
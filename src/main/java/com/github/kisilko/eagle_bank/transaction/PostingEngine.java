@@ -0,0 +1,364 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountRepository;
+import com.github.kisilko.eagle_bank.sharding.AccountShards;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Applies postings to account balances and appends them to the ledger.
+ * <p>
+ * Accounts are spread over a fixed number of lanes by id, and a posting goes to the lane of the account it
+ * debits or credits (for a transfer, the source account). Each lane has a bounded queue and a single worker,
+ * so postings from one account are applied one after another, and lanes proceed in parallel. The worker drains
+ * whatever has queued up and commits it in one database transaction, so under load many postings share one
+ * flush and one commit; a payroll account sending thousands of transfers is committed a batch at a time.
+ * <p>
+ * A batch can also touch accounts of other lanes (transfer destinations), so the worker holds the
+ * {@link AccountLocks} of every account in the batch while it commits. Account versions catch updates from
+ * other nodes. When a batch loses such a race, its postings go back to the end of their lanes after a bounded,
+ * jittered backoff, so the worker moves on and no locks are held while they wait; a retried posting may then be
+ * applied after postings of the same account that were submitted later.
+ * <p>
+ * Accounts live on the shard of their owner. A batch holds the {@link AccountShards} locks of the owners it touches,
+ * so their accounts cannot move while it runs, and commits one database transaction per shard. A transfer between
+ * accounts on different shards cannot be committed atomically and is rejected.
+ */
+@Slf4j
+@Component
+class PostingEngine {
+
+    private final BankAccountRepository bankAccountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountLocks accountLocks;
+    private final AccountShards accountShards;
+    private final Lane[] lanes;
+    private final ScheduledExecutorService retries = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("posting-retry").daemon().factory());
+    private final int maxBatchSize;
+    private final int maxAttempts;
+    private final long backoffMillis;
+    private final long maxBackoffMillis;
+    private final long retryAfterSeconds;
+    private volatile boolean stopped;
+
+    private final DistributionSummary batchSizes;
+    private final Counter rejected;
+    private final Counter conflicts;
+
+    PostingEngine(BankAccountRepository bankAccountRepository,
+                  TransactionRepository transactionRepository,
+                  PlatformTransactionManager transactionManager,
+                  AccountLocks accountLocks,
+                  AccountShards accountShards,
+                  MeterRegistry meterRegistry,
+                  @Value("${transactions.posting.lanes:0}") int laneCount,
+                  @Value("${transactions.posting.queue-capacity:10000}") int queueCapacity,
+                  @Value("${transactions.posting.max-batch-size:256}") int maxBatchSize,
+                  @Value("${transactions.posting.max-attempts:5}") int maxAttempts,
+                  @Value("${transactions.posting.backoff-ms:5}") long backoffMillis,
+                  @Value("${transactions.posting.max-backoff-ms:200}") long maxBackoffMillis,
+                  @Value("${transactions.posting.retry-after-seconds:1}") long retryAfterSeconds) {
+        this.bankAccountRepository = bankAccountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.accountLocks = accountLocks;
+        this.accountShards = accountShards;
+        this.maxBatchSize = maxBatchSize;
+        this.maxAttempts = maxAttempts;
+        this.backoffMillis = backoffMillis;
+        this.maxBackoffMillis = maxBackoffMillis;
+        this.retryAfterSeconds = retryAfterSeconds;
+
+        this.lanes = new Lane[laneCount > 0 ? laneCount : Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(new ArrayBlockingQueue<>(queueCapacity));
+            lanes[i].worker = Thread.ofPlatform().name("posting-lane-" + i).daemon().start(lanes[i]);
+        }
+
+        this.batchSizes = DistributionSummary.builder("transactions.posting.batch.size")
+                .description("Postings committed together in one database transaction")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("transactions.posting.rejected")
+                .description("Postings rejected because the lane queue was full")
+                .register(meterRegistry);
+        this.conflicts = Counter.builder("transactions.posting.conflicts")
+                .description("Batches retried because an account was changed concurrently")
+                .register(meterRegistry);
+        Gauge.builder("transactions.posting.queued", lanes, queued -> Arrays.stream(queued).mapToInt(lane -> lane.queue.size()).sum())
+                .description("Postings waiting in the lane queues")
+                .register(meterRegistry);
+    }
+
+    CompletableFuture<Transaction> submit(BankAccount account, TransactionType type, BigDecimal amount) {
+        return submit(new Posting(account, null, type, amount)).thenApply(List::getFirst);
+    }
+
+    /**
+     * @return the entries of the source and of the destination account, in that order
+     */
+    CompletableFuture<List<Transaction>> submitTransfer(BankAccount fromAccount, BankAccount toAccount, BigDecimal amount) {
+        return submit(new Posting(fromAccount, toAccount, TransactionType.TRANSFER_OUT, amount));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        stopped = true;
+        retries.shutdown();
+        for (Lane lane : lanes) {
+            lane.worker.interrupt();
+        }
+    }
+
+    private CompletableFuture<List<Transaction>> submit(Posting posting) {
+        if (!laneOf(posting).queue.offer(posting)) {
+            rejected.increment();
+            throw new PostingRejectedException(retryAfterSeconds);
+        }
+        return posting.result;
+    }
+
+    private Lane laneOf(Posting posting) {
+        return lanes[Math.floorMod(posting.accountId.hashCode(), lanes.length)];
+    }
+
+    private void post(List<Posting> batch) {
+        Set<Long> userIds = new HashSet<>();
+        for (Posting posting : batch) {
+            userIds.add(posting.userId);
+            if (posting.counterpartyUserId != null) {
+                userIds.add(posting.counterpartyUserId);
+            }
+        }
+
+        try (AccountShards.UserLocks ignored = accountShards.lockUsers(userIds)) {
+            Map<String, List<Posting>> batchesByShard = new LinkedHashMap<>();
+            for (Posting posting : batch) {
+                String shard = accountShards.shardOf(posting.userId);
+                if (posting.counterpartyUserId != null && !shard.equals(accountShards.shardOf(posting.counterpartyUserId))) {
+                    posting.result.completeExceptionally(new CrossShardTransferException(posting.accountId, posting.counterpartyAccountId));
+                } else {
+                    batchesByShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(posting);
+                }
+            }
+            for (Map.Entry<String, List<Posting>> shardBatch : batchesByShard.entrySet()) {
+                post(shardBatch.getKey(), shardBatch.getValue());
+            }
+        }
+    }
+
+    private void post(String shard, List<Posting> batch) {
+        Set<Long> accountIds = new HashSet<>();
+        for (Posting posting : batch) {
+            accountIds.add(posting.accountId);
+            if (posting.counterpartyAccountId != null) {
+                accountIds.add(posting.counterpartyAccountId);
+            }
+        }
+
+        try {
+            accountShards.onShard(shard, () -> accountLocks.withLocks(accountIds,
+                    () -> transactionTemplate.execute(status -> apply(batch, accountIds))));
+        } catch (OptimisticLockingFailureException e) {
+            conflicts.increment();
+            retry(batch, e);
+            return;
+        } catch (RuntimeException e) {
+            fail(shard, batch, e);
+            return;
+        }
+
+        batchSizes.record(batch.size());
+        for (Posting posting : batch) {
+            if (posting.failure != null) {
+                posting.result.completeExceptionally(posting.failure);
+            } else {
+                posting.result.complete(posting.entries);
+            }
+        }
+    }
+
+    private void fail(String shard, List<Posting> batch, RuntimeException e) {
+        if (batch.size() > 1) {
+            // do not let one failing posting fail the others it was batched with
+            for (Posting posting : batch) {
+                post(shard, List.of(posting));
+            }
+        } else {
+            batch.getFirst().result.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Puts the postings back on their lanes after the backoff of their attempt, failing those that are out of attempts.
+     */
+    private void retry(List<Posting> batch, RuntimeException e) {
+        List<Posting> retried = new ArrayList<>(batch.size());
+        int attempt = 0;
+        for (Posting posting : batch) {
+            if (++posting.attempts >= maxAttempts) {
+                posting.result.completeExceptionally(e);
+            } else {
+                retried.add(posting);
+                attempt = Math.max(attempt, posting.attempts);
+            }
+        }
+        if (retried.isEmpty()) {
+            return;
+        }
+        try {
+            retries.schedule(() -> retried.forEach(this::resubmit), backoff(attempt), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException shutdown) {
+            retried.forEach(posting -> posting.result.completeExceptionally(new PostingRejectedException(retryAfterSeconds)));
+        }
+    }
+
+    private void resubmit(Posting posting) {
+        if (stopped || !laneOf(posting).queue.offer(posting)) {
+            posting.result.completeExceptionally(new PostingRejectedException(retryAfterSeconds));
+        }
+    }
+
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private Void apply(List<Posting> batch, Set<Long> accountIds) {
+        Map<Long, BankAccount> accounts = bankAccountRepository.findAllById(accountIds)
+                .stream()
+                .collect(Collectors.toMap(BankAccount::getId, Function.identity()));
+
+        Instant now = Instant.now();
+        List<Transaction> entries = new ArrayList<>(batch.size());
+        for (Posting posting : batch) {
+            posting.entries = null;
+            posting.failure = null;
+
+            BankAccount account = accounts.get(posting.accountId);
+            BankAccount counterparty = posting.counterpartyAccountId == null ? null : accounts.get(posting.counterpartyAccountId);
+            if (account == null || posting.counterpartyAccountId != null && counterparty == null) {
+                posting.failure = new IllegalStateException("Account %s no longer exists".formatted(account == null ? posting.accountId : posting.counterpartyAccountId));
+                continue;
+            }
+
+            BigDecimal balance = switch (posting.type) {
+                case DEPOSIT, TRANSFER_IN -> account.getBalance().add(posting.amount);
+                case WITHDRAWAL, TRANSFER_OUT -> account.getBalance().subtract(posting.amount);
+            };
+            if (balance.signum() < 0) {
+                posting.failure = new InsufficientFundsException(posting.accountId);
+                continue;
+            }
+
+            account.setBalance(balance);
+            posting.entries = new ArrayList<>(2);
+            posting.entries.add(entry(account, posting.counterpartyAccountId, posting.type, posting.amount, now));
+            if (counterparty != null) {
+                counterparty.setBalance(counterparty.getBalance().add(posting.amount));
+                posting.entries.add(entry(counterparty, account.getId(), TransactionType.TRANSFER_IN, posting.amount, now));
+            }
+            entries.addAll(posting.entries);
+        }
+        transactionRepository.saveAll(entries);
+        return null;
+    }
+
+    private static Transaction entry(BankAccount account, Long counterpartyAccountId, TransactionType type, BigDecimal amount, Instant now) {
+        return Transaction.builder()
+                .accountId(account.getId())
+                .counterpartyAccountId(counterpartyAccountId)
+                .type(type)
+                .amount(amount)
+                .balanceAfter(account.getBalance())
+                .createdAt(now)
+                .build();
+    }
+
+    private final class Lane implements Runnable {
+
+        private final BlockingQueue<Posting> queue;
+        private Thread worker;
+
+        private Lane(BlockingQueue<Posting> queue) {
+            this.queue = queue;
+        }
+
+        @Override
+        public void run() {
+            List<Posting> batch = new ArrayList<>(maxBatchSize);
+            try {
+                while (true) {
+                    batch.add(queue.take());
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    try {
+                        post(batch);
+                    } catch (RuntimeException e) {
+                        log.error("Posting batch failed", e);
+                        batch.forEach(posting -> posting.result.completeExceptionally(e));
+                    }
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                PostingRejectedException shutdown = new PostingRejectedException(retryAfterSeconds);
+                batch.forEach(posting -> posting.result.completeExceptionally(shutdown));
+                queue.forEach(posting -> posting.result.completeExceptionally(shutdown));
+            }
+        }
+    }
+
+    private static final class Posting {
+
+        private final Long accountId;
+        private final Long userId;
+        private final Long counterpartyAccountId;
+        private final Long counterpartyUserId;
+        private final TransactionType type;
+        private final BigDecimal amount;
+        private final CompletableFuture<List<Transaction>> result = new CompletableFuture<>();
+
+        private List<Transaction> entries;
+        private RuntimeException failure;
+        private int attempts;
+
+        private Posting(BankAccount account, BankAccount counterparty, TransactionType type, BigDecimal amount) {
+            this.accountId = account.getId();
+            this.userId = account.getUserId();
+            this.counterpartyAccountId = counterparty == null ? null : counterparty.getId();
+            this.counterpartyUserId = counterparty == null ? null : counterparty.getUserId();
+            this.type = type;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import lombok.Getter;
+
+@Getter
+class PostingRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public PostingRejectedException(long retryAfterSeconds) {
+        super("Too many pending transactions, please retry in %s s".formatted(retryAfterSeconds));
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
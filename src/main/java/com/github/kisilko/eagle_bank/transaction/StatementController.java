@@ -0,0 +1,65 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountNotFoundException;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.security.OwnershipAuthorizer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+@RestController
+@RequestMapping("/v1/accounts/{accountId}/statement")
+@RequiredArgsConstructor
+class StatementController {
+
+    private final BankAccountService bankAccountService;
+    private final StatementService statementService;
+    private final OwnershipAuthorizer ownershipAuthorizer;
+
+    @Operation(summary = "Export account statement", description = "Streams the transactions between from and to (inclusive, UTC dates) as CSV or NDJSON")
+    @ApiResponse(responseCode = "200", description = "Statement streamed")
+    @ApiResponse(responseCode = "400", description = "Invalid range or format")
+    @ApiResponse(responseCode = "403", description = "Forbidden")
+    @ApiResponse(responseCode = "404", description = "Account not found")
+    @GetMapping
+    public void statement(@PathVariable Long accountId,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                          @RequestParam(defaultValue = "csv") String format,
+                          HttpServletResponse response) throws IOException {
+        StatementFormat statementFormat = StatementFormat.of(format);
+        Instant fromInstant = from == null ? Instant.EPOCH : from.atStartOfDay(ZoneOffset.UTC).toInstant();
+        Instant toInstant = to == null ? Instant.now() : to.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant();
+        if (!fromInstant.isBefore(toInstant)) {
+            throw new InvalidStatementRequestException("from must not be after to");
+        }
+
+        BankAccount bankAccount = bankAccountService.findById(accountId)
+                .orElseThrow(() -> new BankAccountNotFoundException(accountId));
+        ownershipAuthorizer.checkAccount(bankAccount);
+
+        response.setContentType(statementFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("statement-%s.%s".formatted(accountId, statementFormat.fileExtension()))
+                .build()
+                .toString());
+        // written on the request thread rather than as an async StreamingResponseBody, so long statements are not cut off by the async timeout
+        statementService.writeStatement(bankAccount, fromInstant, toInstant, statementFormat, response.getOutputStream());
+    }
+}
@@ -0,0 +1,35 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+enum StatementFormat {
+
+    CSV("text/csv", "csv"),
+    NDJSON(MediaType.APPLICATION_NDJSON_VALUE, "ndjson");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    StatementFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    static StatementFormat of(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidStatementRequestException("Unsupported statement format: " + format);
+        }
+    }
+
+    String contentType() {
+        return contentType;
+    }
+
+    String fileExtension() {
+        return fileExtension;
+    }
+}
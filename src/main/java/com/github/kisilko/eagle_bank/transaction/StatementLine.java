@@ -0,0 +1,8 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+public record StatementLine(Long id, Instant createdAt, TransactionType type, BigDecimal amount,
+                            BigDecimal balanceAfter, Long counterpartyAccountId) {
+}
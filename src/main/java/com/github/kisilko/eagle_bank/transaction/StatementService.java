@@ -0,0 +1,87 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.sharding.AccountShards;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+/**
+ * Writes account statements row by row from a forward-only database cursor. Rows are read as projections,
+ * not entities, so nothing accumulates in the persistence context and heap use does not grow with the range.
+ */
+@Service
+class StatementService {
+
+    private static final String CSV_HEADER = "id,createdAt,type,amount,balanceAfter,counterpartyAccountId";
+
+    private final TransactionRepository transactionRepository;
+    private final AccountShards accountShards;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectWriter lineWriter;
+
+    StatementService(TransactionRepository transactionRepository,
+                     AccountShards accountShards,
+                     PlatformTransactionManager transactionManager,
+                     ObjectMapper objectMapper) {
+        this.transactionRepository = transactionRepository;
+        this.accountShards = accountShards;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.lineWriter = objectMapper.writerFor(StatementLine.class);
+    }
+
+    /**
+     * Writes the statement to the stream and flushes it, leaving the stream open.
+     */
+    public void writeStatement(BankAccount bankAccount, Instant from, Instant to, StatementFormat format, OutputStream output) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        try {
+            accountShards.onShardOf(bankAccount.getUserId(), () -> readOnlyTransaction.execute(status -> {
+                try (Stream<StatementLine> lines = transactionRepository.streamStatement(bankAccount.getId(), from, to)) {
+                    if (format == StatementFormat.CSV) {
+                        writer.write(CSV_HEADER);
+                        writer.write('\n');
+                    }
+                    lines.forEach(line -> write(line, format, writer));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void write(StatementLine line, StatementFormat format, Writer writer) {
+        try {
+            switch (format) {
+                case CSV -> writer.write(String.join(",",
+                        line.id().toString(),
+                        line.createdAt().toString(),
+                        line.type().name(),
+                        line.amount().toPlainString(),
+                        line.balanceAfter().toPlainString(),
+                        line.counterpartyAccountId() == null ? "" : line.counterpartyAccountId().toString()));
+                case NDJSON -> writer.write(lineWriter.writeValueAsString(line));
+            }
+            writer.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.sharding.SnowflakeId;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+import org.springframework.hateoas.server.core.Relation;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A ledger entry. Entries are only ever appended; the balance of an account is the {@code balanceAfter}
+ * of its latest entry, and is also kept on the account so postings do not have to read the ledger.
+ */
+@Entity
+@Immutable
+@Table(
+        name = "transactions",
+        indexes = {
+                @Index(name = "idx_transactions_account_id_id", columnList = "account_id, id"),
+                @Index(name = "idx_transactions_account_id_created_at", columnList = "account_id, created_at")
+        }
+)
+@Relation(itemRelation = "transaction", collectionRelation = "transactions")
+@Getter
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class Transaction {
+
+    @Id
+    @SnowflakeId
+    private Long id;
+
+    @Column(name = "account_id", nullable = false, updatable = false)
+    private Long accountId;
+
+    @Column(name = "counterparty_account_id", updatable = false)
+    private Long counterpartyAccountId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private TransactionType type;
+
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false, updatable = false, precision = 19, scale = 2)
+    private BigDecimal balanceAfter;
+
+    @Column(nullable = false, updatable = false)
+    private Instant createdAt;
+}
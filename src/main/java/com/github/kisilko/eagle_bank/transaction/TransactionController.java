@@ -0,0 +1,63 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountNotFoundException;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.security.OwnershipAuthorizer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/v1/accounts/{accountId}/transactions")
+@RequiredArgsConstructor
+class TransactionController {
+
+    private final BankAccountService bankAccountService;
+    private final TransactionService transactionService;
+    private final TransactionModelAssembler transactionModelAssembler;
+    private final OwnershipAuthorizer ownershipAuthorizer;
+
+    @Operation(summary = "Deposit to or withdraw from an account")
+    @ApiResponse(responseCode = "201", description = "Transaction posted")
+    @ApiResponse(responseCode = "403", description = "Forbidden")
+    @ApiResponse(responseCode = "404", description = "Account not found")
+    @ApiResponse(responseCode = "422", description = "Insufficient funds")
+    @ApiResponse(responseCode = "503", description = "Too many pending transactions")
+    @PostMapping
+    public CompletableFuture<ResponseEntity<EntityModel<Transaction>>> createTransaction(@PathVariable Long accountId,
+                                                                                        @Valid @RequestBody TransactionCreateRequest transactionCreateRequest) {
+        BankAccount bankAccount = bankAccountService.findById(accountId)
+                .orElseThrow(() -> new BankAccountNotFoundException(accountId));
+        ownershipAuthorizer.checkAccount(bankAccount);
+
+        return transactionService.createTransaction(bankAccount, transactionCreateRequest)
+                .thenApply(transaction -> {
+                    EntityModel<Transaction> transactionModel = transactionModelAssembler.toModel(transaction);
+                    return ResponseEntity.created(transactionModel.getRequiredLink("self").toUri())
+                            .body(transactionModel);
+                });
+    }
+
+    @Operation(summary = "Get transaction details")
+    @ApiResponse(responseCode = "200", description = "Transaction found")
+    @ApiResponse(responseCode = "403", description = "Forbidden")
+    @ApiResponse(responseCode = "404", description = "Account or transaction not found")
+    @GetMapping("{transactionId}")
+    public ResponseEntity<EntityModel<Transaction>> transactionDetails(@PathVariable Long accountId,
+                                                                       @PathVariable Long transactionId) {
+        BankAccount bankAccount = bankAccountService.findById(accountId)
+                .orElseThrow(() -> new BankAccountNotFoundException(accountId));
+        ownershipAuthorizer.checkAccount(bankAccount);
+
+        Transaction transaction = transactionService.findById(bankAccount, transactionId)
+                .orElseThrow(() -> new TransactionNotFoundException(transactionId));
+        return ResponseEntity.ok(transactionModelAssembler.toModel(transaction));
+    }
+}
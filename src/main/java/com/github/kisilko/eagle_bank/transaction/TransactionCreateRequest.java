@@ -0,0 +1,16 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+
+public record TransactionCreateRequest(
+        @NotNull(message = "Missing required field: type")
+        TransactionType type,
+        @NotNull(message = "Missing required field: amount")
+        @Positive(message = "Amount must be positive")
+        @Digits(integer = 17, fraction = 2, message = "Amount must have at most 2 decimal places")
+        BigDecimal amount
+) { }
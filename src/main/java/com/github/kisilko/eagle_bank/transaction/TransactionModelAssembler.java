@@ -0,0 +1,18 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.hateoas.LinkTemplate;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.server.RepresentationModelAssembler;
+import org.springframework.stereotype.Component;
+
+@Component
+class TransactionModelAssembler implements RepresentationModelAssembler<Transaction, EntityModel<Transaction>> {
+
+    private final LinkTemplate selfLink = LinkTemplate.of(TransactionController.class, "transactionDetails");
+
+    @Override
+    public EntityModel<Transaction> toModel(Transaction transaction) {
+        return EntityModel.of(transaction, selfLink.link(IanaLinkRelations.SELF, transaction.getAccountId(), transaction.getId()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+class TransactionNotFoundException extends RuntimeException {
+    public TransactionNotFoundException(Long transactionId) {
+        super("Transaction %s not found".formatted(transactionId));
+    }
+}
@@ -0,0 +1,28 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+interface TransactionRepository extends JpaRepository<Transaction, Long> {
+
+    Optional<Transaction> findByIdAndAccountId(Long id, Long accountId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+            select new com.github.kisilko.eagle_bank.transaction.StatementLine(
+                t.id, t.createdAt, t.type, t.amount, t.balanceAfter, t.counterpartyAccountId)
+            from Transaction t
+            where t.accountId = :accountId and t.createdAt >= :from and t.createdAt < :to
+            order by t.createdAt, t.id""")
+    Stream<StatementLine> streamStatement(Long accountId, Instant from, Instant to);
+}
@@ -0,0 +1,39 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.sharding.AccountShards;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+@Service
+@RequiredArgsConstructor
+public class TransactionService {
+
+    private final PostingEngine postingEngine;
+    private final TransactionRepository transactionRepository;
+    private final AccountShards accountShards;
+
+    public CompletableFuture<Transaction> createTransaction(BankAccount bankAccount, TransactionCreateRequest transactionCreateRequest) {
+        return postingEngine.submit(bankAccount, transactionCreateRequest.type(), transactionCreateRequest.amount());
+    }
+
+    public CompletableFuture<List<Transaction>> transfer(BankAccount fromAccount, BankAccount toAccount, TransferRequest transferRequest) {
+        if (!Objects.equals(fromAccount.getCurrency(), toAccount.getCurrency())) {
+            throw new CurrencyMismatchException(fromAccount.getCurrency(), toAccount.getCurrency());
+        }
+        if (!accountShards.shardOf(fromAccount.getUserId()).equals(accountShards.shardOf(toAccount.getUserId()))) {
+            throw new CrossShardTransferException(fromAccount.getId(), toAccount.getId());
+        }
+        return postingEngine.submitTransfer(fromAccount, toAccount, transferRequest.amount());
+    }
+
+    public Optional<Transaction> findById(BankAccount bankAccount, Long transactionId) {
+        return accountShards.onShardOf(bankAccount.getUserId(),
+                () -> transactionRepository.findByIdAndAccountId(transactionId, bankAccount.getId()));
+    }
+}
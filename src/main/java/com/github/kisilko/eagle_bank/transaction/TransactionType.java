@@ -0,0 +1,8 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+public enum TransactionType {
+    DEPOSIT,
+    WITHDRAWAL,
+    TRANSFER_OUT,
+    TRANSFER_IN
+}
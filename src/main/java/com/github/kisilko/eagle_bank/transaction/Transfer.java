@@ -0,0 +1,31 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import lombok.Getter;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.RepresentationModel;
+
+import java.math.BigDecimal;
+
+/**
+ * A representation model itself, so the response is rendered as HAL along with the entries it holds.
+ */
+@Getter
+class Transfer extends RepresentationModel<Transfer> {
+
+    private final Long fromAccountId;
+    private final Long toAccountId;
+    private final BigDecimal amount;
+    private final EntityModel<Transaction> debit;
+    private final EntityModel<Transaction> credit;
+
+    Transfer(Long fromAccountId, Long toAccountId, BigDecimal amount, EntityModel<Transaction> debit, EntityModel<Transaction> credit) {
+        this.fromAccountId = fromAccountId;
+        this.toAccountId = toAccountId;
+        this.amount = amount;
+        this.debit = debit;
+        this.credit = credit;
+        add(debit.getRequiredLink(IanaLinkRelations.SELF).withRel("debit"));
+        add(credit.getRequiredLink(IanaLinkRelations.SELF).withRel("credit"));
+    }
+}
@@ -0,0 +1,55 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import com.github.kisilko.eagle_bank.account.BankAccount;
+import com.github.kisilko.eagle_bank.account.BankAccountNotFoundException;
+import com.github.kisilko.eagle_bank.account.BankAccountService;
+import com.github.kisilko.eagle_bank.security.OwnershipAuthorizer;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.concurrent.CompletableFuture;
+
+@RestController
+@RequestMapping("/v1/transfers")
+@RequiredArgsConstructor
+class TransferController {
+
+    private final BankAccountService bankAccountService;
+    private final TransactionService transactionService;
+    private final TransactionModelAssembler transactionModelAssembler;
+    private final OwnershipAuthorizer ownershipAuthorizer;
+
+    @Operation(summary = "Move money between two accounts")
+    @ApiResponse(responseCode = "201", description = "Transfer posted")
+    @ApiResponse(responseCode = "403", description = "Forbidden")
+    @ApiResponse(responseCode = "404", description = "Account not found")
+    @ApiResponse(responseCode = "409", description = "An account was changed concurrently")
+    @ApiResponse(responseCode = "422", description = "Insufficient funds, different currencies, or accounts in different databases")
+    @ApiResponse(responseCode = "503", description = "Too many pending transactions")
+    @PostMapping
+    public CompletableFuture<ResponseEntity<Transfer>> transfer(@Valid @RequestBody TransferRequest transferRequest) {
+        BankAccount fromAccount = bankAccountService.findById(transferRequest.fromAccountId())
+                .orElseThrow(() -> new BankAccountNotFoundException(transferRequest.fromAccountId()));
+        BankAccount toAccount = bankAccountService.findById(transferRequest.toAccountId())
+                .orElseThrow(() -> new BankAccountNotFoundException(transferRequest.toAccountId()));
+        ownershipAuthorizer.checkAccount(fromAccount);
+
+        return transactionService.transfer(fromAccount, toAccount, transferRequest)
+                .thenApply(entries -> {
+                    EntityModel<Transaction> debit = transactionModelAssembler.toModel(entries.get(0));
+                    EntityModel<Transaction> credit = transactionModelAssembler.toModel(entries.get(1));
+                    return ResponseEntity.status(HttpStatus.CREATED)
+                            .location(debit.getRequiredLink("self").toUri())
+                            .body(new Transfer(fromAccount.getId(), toAccount.getId(), transferRequest.amount(), debit, credit));
+                });
+    }
+}
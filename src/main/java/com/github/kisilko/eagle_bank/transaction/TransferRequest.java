@@ -0,0 +1,26 @@
+package com.github.kisilko.eagle_bank.transaction;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+
+import java.math.BigDecimal;
+import java.util.Objects;
+
+public record TransferRequest(
+        @NotNull(message = "Missing required field: fromAccountId")
+        Long fromAccountId,
+        @NotNull(message = "Missing required field: toAccountId")
+        Long toAccountId,
+        @NotNull(message = "Missing required field: amount")
+        @Positive(message = "Amount must be positive")
+        @Digits(integer = 17, fraction = 2, message = "Amount must have at most 2 decimal places")
+        BigDecimal amount
+) {
+
+    @AssertTrue(message = "Cannot transfer to the same account")
+    public boolean isDistinctAccounts() {
+        return fromAccountId == null || !Objects.equals(fromAccountId, toAccountId);
+    }
+}
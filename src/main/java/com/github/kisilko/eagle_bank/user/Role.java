@@ -0,0 +1,60 @@
+package com.github.kisilko.eagle_bank.user;
+
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Roles of a user, stored and carried in tokens as a bitmask of {@link #bit()}.
+ * Bits are part of the stored data and of issued tokens, so existing bits must never change.
+ */
+public enum Role {
+
+    USER(1),
+    ADMIN(1 << 1);
+
+    private final int bit;
+
+    Role(int bit) {
+        this.bit = bit;
+    }
+
+    public int bit() {
+        return bit;
+    }
+
+    /**
+     * Union of the bits of every role.
+     */
+    public static int allBits() {
+        int mask = 0;
+        for (Role role : values()) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    public static int toMask(Collection<Role> roles) {
+        int mask = 0;
+        for (Role role : roles) {
+            mask |= role.bit;
+        }
+        return mask;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the mask has bits of no role
+     */
+    public static Set<Role> fromMask(int mask) {
+        if ((mask & ~allBits()) != 0) {
+            throw new IllegalArgumentException("Unknown role bits in %s".formatted(mask));
+        }
+        Set<Role> roles = EnumSet.noneOf(Role.class);
+        for (Role role : values()) {
+            if ((mask & role.bit) != 0) {
+                roles.add(role);
+            }
+        }
+        return roles;
+    }
+}
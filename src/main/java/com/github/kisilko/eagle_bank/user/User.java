@@ -3,23 +3,30 @@ package com.github.kisilko.eagle_bank.user;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
-import java.util.List;
+import java.util.Set;
 
 @Entity
 @Table(
         name = "users",
         uniqueConstraints = @UniqueConstraint(columnNames = "email")
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = User.CACHE_REGION)
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class User {
 
+        static final String CACHE_REGION = "users";
+        static final String EMAIL_QUERY_CACHE_REGION = "users-by-email";
+
         @Id
-        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+        @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
         private Long id;
 
         private String name;
@@ -29,5 +36,11 @@ public class User {
         private String password;
 
         @JsonIgnore
-        private List<String> roles;
+        @Convert(converter = RoleSetConverter.class)
+        @Column(nullable = false)
+        private Set<Role> roles;
+
+        @Version
+        @JsonIgnore
+        private Long version;
 }
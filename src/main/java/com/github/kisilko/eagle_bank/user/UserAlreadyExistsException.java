@@ -0,0 +1,8 @@
+package com.github.kisilko.eagle_bank.user;
+
+class UserAlreadyExistsException extends RuntimeException {
+
+    UserAlreadyExistsException() {
+        super("Email already in use");
+    }
+}
@@ -0,0 +1,103 @@
+package com.github.kisilko.eagle_bank.user;
+
+import com.github.kisilko.eagle_bank.cache.BoundedCache;
+import com.github.kisilko.eagle_bank.cache.CacheMetrics;
+import com.github.kisilko.eagle_bank.datasource.ReplicaReads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recently read users, keyed by id and by email. Cached instances are shared between requests
+ * and must not be modified; updates go through {@link UserService}, which invalidates the entries.
+ * <p>
+ * Entries are invalidated once the transaction that changed the user commits. A reader that loaded the user
+ * before that, from the row being replaced, takes a {@link #stamp()} before its query and passes it to
+ * {@link #put(User, long)}, which drops the user again if an invalidation happened in between.
+ */
+@Component
+class UserCache implements MeterBinder {
+
+    private final BoundedCache<Long, User> usersById;
+    private final BoundedCache<String, User> usersByEmail;
+    private final long ttlMillis;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    UserCache(@Value("${users.cache.max-size:10000}") int maxSize,
+              @Value("${users.cache.ttl-seconds:300}") long ttlSeconds) {
+        this.usersById = new BoundedCache<>(maxSize);
+        this.usersByEmail = new BoundedCache<>(maxSize);
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    User getById(Long userId) {
+        return usersById.get(userId);
+    }
+
+    User getByEmail(String email) {
+        return usersByEmail.get(email);
+    }
+
+    /**
+     * @return the stamp to pass to {@link #put(User, long)} for a user about to be read from the database
+     */
+    long stamp() {
+        return invalidations.get();
+    }
+
+    void put(User user) {
+        long expiresAt = System.currentTimeMillis() + ttlMillis;
+        usersById.put(user.getId(), user, expiresAt);
+        usersByEmail.put(user.getEmail(), user, expiresAt);
+    }
+
+    /**
+     * Caches a user read after {@link #stamp()} returned the given stamp, unless a user was invalidated since or
+     * the user was read from the replica.
+     */
+    void put(User user, long stamp) {
+        if (ReplicaReads.inCurrentTransaction()) {
+            // may be older than the lag limit and read-your-writes allow, and cached users are served before routing
+            return;
+        }
+        put(user);
+        // checked after the put, so an invalidation racing with it either sees the entries or is seen here
+        if (invalidations.get() != stamp) {
+            usersById.invalidate(user.getId(), user);
+            usersByEmail.invalidate(user.getEmail(), user);
+        }
+    }
+
+    /**
+     * Invalidates the user once the current transaction commits, or right away outside a transaction.
+     */
+    void invalidateAfterCommit(User user) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(user);
+                }
+            });
+        } else {
+            invalidate(user);
+        }
+    }
+
+    private void invalidate(User user) {
+        invalidations.incrementAndGet();
+        usersById.invalidate(user.getId());
+        usersByEmail.invalidate(user.getEmail());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMetrics.bind(registry, "users.by-id", usersById);
+        CacheMetrics.bind(registry, "users.by-email", usersByEmail);
+    }
+}
@@ -1,11 +1,14 @@
 package com.github.kisilko.eagle_bank.user;
 
+import com.github.kisilko.eagle_bank.cache.VersionETags;
+import com.github.kisilko.eagle_bank.security.OwnershipAuthorizer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -13,6 +16,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Optional;
+
 @RestController
 @RequestMapping("/v1/users")
 @RequiredArgsConstructor
@@ -20,23 +25,34 @@ class UserController {
 
     private final UserService userService;
     private final UserModelAssembler userModelAssembler;
+    private final OwnershipAuthorizer ownershipAuthorizer;
 
     @Operation(summary = "Get user details", description = "Returns user by ID")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "User found"),
+            @ApiResponse(responseCode = "304", description = "User not modified since the version in If-None-Match"),
             @ApiResponse(responseCode = "403", description = "Forbidden"),
             @ApiResponse(responseCode = "404", description = "User not found")
     })
     @GetMapping("{userId}")
-    public ResponseEntity<EntityModel<User>> userDetails(@PathVariable Long userId) {
-
-        if (userService.notExistsById(userId)) {
-            throw new UserNotFoundException(userId);
+    public ResponseEntity<EntityModel<User>> userDetails(@PathVariable Long userId,
+                                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        // polling owners are answered from the version alone, anyone else goes the full way to get 403 or 404
+        if (ifNoneMatch != null && ownershipAuthorizer.isCurrentUser(userId)) {
+            Optional<Long> version = userService.findVersionById(userId);
+            if (version.isPresent() && VersionETags.matches(ifNoneMatch, version.get())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(VersionETags.format(version.get()))
+                        .build();
+            }
         }
 
         User user = userService.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException(userId));
-        return ResponseEntity.ok(userModelAssembler.toModel(user));
+        ownershipAuthorizer.checkUser(user.getId());
+        return ResponseEntity.ok()
+                .eTag(VersionETags.format(user.getVersion()))
+                .body(userModelAssembler.toModel(user));
     }
 
     @Operation(summary = "Create user")
@@ -55,16 +71,19 @@ class UserController {
     @ApiResponse(responseCode = "200", description = "User updated")
     @ApiResponse(responseCode = "403", description = "Forbidden")
     @ApiResponse(responseCode = "404", description = "User not found")
+    @ApiResponse(responseCode = "412", description = "User modified since the version in If-Match")
     @PatchMapping("/{userId}")
     public ResponseEntity<EntityModel<User>> updateUserDetails(@PathVariable Long userId,
+                                               @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
                                                @RequestBody UserUpdateRequest userUpdateRequest) {
+        User user = userService.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        ownershipAuthorizer.checkUser(user.getId());
 
-        if (userService.notExistsById(userId)) {
-            throw new UserNotFoundException(userId);
-        }
-
-        User updatedUser = userService.updateUser(userId, userUpdateRequest);
-        return ResponseEntity.ok(userModelAssembler.toModel(updatedUser));
+        User updatedUser = userService.updateUser(user, userUpdateRequest, ifMatch == null ? null : VersionETags.versions(ifMatch));
+        return ResponseEntity.ok()
+                .eTag(VersionETags.format(updatedUser.getVersion()))
+                .body(userModelAssembler.toModel(updatedUser));
     }
 
 
@@ -74,12 +93,11 @@ class UserController {
     @ApiResponse(responseCode = "404", description = "User not found")
     @DeleteMapping("/{userId}")
     public ResponseEntity<ResponseEntity<Void>> deleteUser(@PathVariable Long userId) {
+        User user = userService.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException(userId));
+        ownershipAuthorizer.checkUser(user.getId());
 
-        if (userService.notExistsById(userId)) {
-            throw new UserNotFoundException(userId);
-        }
-
-        userService.deleteUser(userId);
+        userService.deleteUser(user);
         return ResponseEntity.noContent().build();
     }
 }
@@ -0,0 +1,115 @@
+package com.github.kisilko.eagle_bank.user;
+
+import com.github.kisilko.eagle_bank.cache.CountingBloomFilter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+
+/**
+ * Emails of existing users in a {@link CountingBloomFilter}, loaded at startup and kept up to date on create and delete.
+ * <p>
+ * Emails are normalized before they go into the filter, so an email that differs from a taken one only in case is
+ * a probable duplicate too; whether it really is one is decided by the exact lookup in the database.
+ */
+@Slf4j
+@Component
+class UserEmailFilter implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final CountingBloomFilter filter;
+
+    private final LongAdder negatives = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+    private final LongAdder duplicates = new LongAdder();
+
+    UserEmailFilter(UserRepository userRepository,
+                    PlatformTransactionManager transactionManager,
+                    @Value("${users.email-filter.expected-users:1000000}") long expectedUsers,
+                    @Value("${users.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.filter = new CountingBloomFilter(expectedUsers, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void load() {
+        long start = System.nanoTime();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (Stream<String> emails = userRepository.streamAllEmails()) {
+                emails.forEach(this::add);
+            }
+        });
+        log.info("Loaded {} user emails into the email filter in {} ms ({} KiB)",
+                filter.entries(), (System.nanoTime() - start) / 1_000_000, filter.memoryBytes() / 1024);
+    }
+
+    /**
+     * @return {@code false} if no user has the email, {@code true} if one probably does
+     */
+    boolean mightBeTaken(String email) {
+        boolean mightBeTaken = filter.mightContain(normalize(email));
+        if (!mightBeTaken) {
+            negatives.increment();
+        }
+        return mightBeTaken;
+    }
+
+    /**
+     * Records the outcome of the database lookup that followed a positive {@link #mightBeTaken}.
+     */
+    void recordLookup(boolean taken) {
+        (taken ? duplicates : falsePositives).increment();
+    }
+
+    void add(String email) {
+        filter.add(normalize(email));
+    }
+
+    /**
+     * Only for emails of users that existed, see {@link CountingBloomFilter#remove}.
+     */
+    void remove(String email) {
+        filter.remove(normalize(email));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        lookups(registry, "negative", negatives);
+        lookups(registry, "false-positive", falsePositives);
+        lookups(registry, "duplicate", duplicates);
+        Gauge.builder("users.email-filter.entries", filter, CountingBloomFilter::entries)
+                .description("Emails in the filter")
+                .register(registry);
+        Gauge.builder("users.email-filter.memory", filter, CountingBloomFilter::memoryBytes)
+                .baseUnit("bytes")
+                .description("Memory used by the filter counters")
+                .register(registry);
+        Gauge.builder("users.email-filter.false-positive-rate", filter, CountingBloomFilter::expectedFalsePositiveRate)
+                .description("Expected false positive rate for the current number of emails")
+                .register(registry);
+    }
+
+    private static void lookups(MeterRegistry registry, String result, LongAdder count) {
+        FunctionCounter.builder("users.email-filter.lookups", count, LongAdder::sum)
+                .tag("result", result)
+                .description("Email checks on user creation, by what the filter and the database answered")
+                .register(registry);
+    }
+
+    private static String normalize(String email) {
+        return email.strip().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.kisilko.eagle_bank.user;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/v1/users:import")
+@RequiredArgsConstructor
+class UserImportController {
+
+    private final UserImportService userImportService;
+
+    @Operation(summary = "Import users", description = "Reads one user per line and writes one result per line")
+    @ApiResponse(responseCode = "200", description = "Import processed, see the status of each line")
+    @ApiResponse(responseCode = "403", description = "Forbidden")
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE, produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void importUsers(InputStream body, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        userImportService.importUsers(body, response.getOutputStream());
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.kisilko.eagle_bank.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+record UserImportResult(long line, int status, Long id, List<String> errors) {
+
+    static UserImportResult created(long line, Long id) {
+        return new UserImportResult(line, HttpStatus.CREATED.value(), id, null);
+    }
+
+    static UserImportResult rejected(long line, HttpStatus status, List<String> errors) {
+        return new UserImportResult(line, status.value(), null, errors);
+    }
+}
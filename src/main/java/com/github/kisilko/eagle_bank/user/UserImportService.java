@@ -0,0 +1,263 @@
+package com.github.kisilko.eagle_bank.user;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.kisilko.eagle_bank.audit.AuditEventType;
+import com.github.kisilko.eagle_bank.audit.AuditLog;
+import com.github.kisilko.eagle_bank.security.PasswordHashingRejectedException;
+import com.github.kisilko.eagle_bank.security.PasswordHashingService;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Imports users from newline-delimited JSON. Lines are read, hashed and saved one chunk at a time,
+ * and the result of each line is written back before the next chunk is read, so memory use depends
+ * on the chunk size rather than on the size of the import.
+ */
+@Slf4j
+@Service
+class UserImportService {
+
+    private static final long HASHING_BACKOFF_MILLIS = 20;
+    private static final List<String> EMAIL_IN_USE = List.of("Email already in use");
+
+    private final UserRepository userRepository;
+    private final UserEmailFilter userEmailFilter;
+    private final UserMapper userMapper;
+    private final PasswordHashingService passwordHashingService;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final AuditLog auditLog;
+    private final ObjectReader requestReader;
+    private final ObjectWriter resultWriter;
+    private final int chunkSize;
+
+    UserImportService(UserRepository userRepository,
+                      UserEmailFilter userEmailFilter,
+                      UserMapper userMapper,
+                      PasswordHashingService passwordHashingService,
+                      Validator validator,
+                      PlatformTransactionManager transactionManager,
+                      AuditLog auditLog,
+                      ObjectMapper objectMapper,
+                      @Value("${users.import.chunk-size:500}") int chunkSize) {
+        this.userRepository = userRepository;
+        this.userEmailFilter = userEmailFilter;
+        this.userMapper = userMapper;
+        this.passwordHashingService = passwordHashingService;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.auditLog = auditLog;
+        this.requestReader = objectMapper.readerFor(UserCreateRequest.class);
+        this.resultWriter = objectMapper.writerFor(UserImportResult.class);
+        this.chunkSize = chunkSize;
+    }
+
+    void importUsers(InputStream input, OutputStream output) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<ImportRow> chunk = new ArrayList<>(chunkSize);
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            chunk.add(parse(lineNumber, line));
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, output);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, output);
+        }
+    }
+
+    private ImportRow parse(long lineNumber, String line) {
+        ImportRow row = new ImportRow(lineNumber);
+        try {
+            row.request = requestReader.readValue(line);
+        } catch (JsonProcessingException e) {
+            row.result = UserImportResult.rejected(lineNumber, HttpStatus.BAD_REQUEST, List.of("Malformed JSON"));
+            return row;
+        }
+        if (row.request == null) {
+            row.result = UserImportResult.rejected(lineNumber, HttpStatus.BAD_REQUEST, List.of("Missing user"));
+            return row;
+        }
+
+        List<String> errors = validator.validate(row.request).stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .toList();
+        if (!errors.isEmpty()) {
+            row.result = UserImportResult.rejected(lineNumber, HttpStatus.BAD_REQUEST, errors);
+        }
+        return row;
+    }
+
+    private void importChunk(List<ImportRow> chunk, OutputStream output) throws IOException {
+        rejectDuplicateEmails(chunk);
+        hashPasswords(chunk);
+        save(chunk);
+
+        for (ImportRow row : chunk) {
+            output.write(resultWriter.writeValueAsBytes(row.result));
+            output.write('\n');
+        }
+        output.flush();
+    }
+
+    private void rejectDuplicateEmails(List<ImportRow> chunk) {
+        Set<String> emails = new HashSet<>();
+        Set<String> probablyTaken = new HashSet<>();
+        for (ImportRow row : pending(chunk)) {
+            if (!emails.add(row.request.email())) {
+                row.result = UserImportResult.rejected(row.line, HttpStatus.CONFLICT, EMAIL_IN_USE);
+            } else if (userEmailFilter.mightBeTaken(row.request.email())) {
+                probablyTaken.add(row.request.email());
+            }
+        }
+
+        // only emails the filter cannot rule out are looked up
+        if (probablyTaken.isEmpty()) {
+            return;
+        }
+        Set<String> existingEmails = new HashSet<>(userRepository.findExistingEmails(probablyTaken));
+        for (String email : probablyTaken) {
+            userEmailFilter.recordLookup(existingEmails.contains(email));
+        }
+        for (ImportRow row : pending(chunk)) {
+            if (existingEmails.contains(row.request.email())) {
+                row.result = UserImportResult.rejected(row.line, HttpStatus.CONFLICT, EMAIL_IN_USE);
+            }
+        }
+    }
+
+    private void hashPasswords(List<ImportRow> chunk) {
+        List<ImportRow> rows = pending(chunk);
+        List<CompletableFuture<String>> hashes = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            hashes.add(encode(row.request.password(), hashes));
+        }
+
+        for (int i = 0; i < rows.size(); i++) {
+            ImportRow row = rows.get(i);
+            try {
+                row.user = userMapper.toUser(row.request, hashes.get(i).join(), UserService.USER_DEFAULT_ROLES);
+            } catch (RuntimeException e) {
+                log.warn("Could not hash the password of line {}", row.line, e);
+                row.result = UserImportResult.rejected(row.line, HttpStatus.INTERNAL_SERVER_ERROR, List.of("User could not be saved"));
+            }
+        }
+    }
+
+    /**
+     * Submits to the shared hashing pool, and when its queue is full waits for one of this import's
+     * own hashes to finish instead of failing the line, so an import never holds more than the queue.
+     */
+    private CompletableFuture<String> encode(String password, List<CompletableFuture<String>> inFlight) {
+        while (true) {
+            try {
+                return passwordHashingService.encode(password);
+            } catch (PasswordHashingRejectedException e) {
+                CompletableFuture<?>[] running = inFlight.stream()
+                        .filter(hash -> !hash.isDone())
+                        .toArray(CompletableFuture[]::new);
+                if (running.length > 0) {
+                    CompletableFuture.anyOf(running).handle((hash, error) -> null).join();
+                } else {
+                    sleep(HASHING_BACKOFF_MILLIS);
+                }
+            }
+        }
+    }
+
+    private void save(List<ImportRow> chunk) {
+        List<ImportRow> rows = pending(chunk);
+        try {
+            List<User> savedUsers = transactionTemplate.execute(status -> {
+                List<User> users = userRepository.saveAll(rows.stream().map(row -> row.user).toList());
+                users.forEach(this::audit);
+                return users;
+            });
+            for (int i = 0; i < rows.size(); i++) {
+                rows.get(i).result = UserImportResult.created(rows.get(i).line, savedUsers.get(i).getId());
+                userEmailFilter.add(savedUsers.get(i).getEmail());
+            }
+        } catch (DataIntegrityViolationException e) {
+            // an email was taken after the duplicate check, save row by row to find out which
+            for (ImportRow row : rows) {
+                saveOne(row);
+            }
+        }
+    }
+
+    private void saveOne(ImportRow row) {
+        try {
+            // the failed batch may have assigned an id that was rolled back
+            User savedUser = transactionTemplate.execute(status -> {
+                User user = userRepository.save(row.user.toBuilder().id(null).build());
+                audit(user);
+                return user;
+            });
+            row.result = UserImportResult.created(row.line, savedUser.getId());
+            userEmailFilter.add(savedUser.getEmail());
+        } catch (DataIntegrityViolationException e) {
+            row.result = UserImportResult.rejected(row.line, HttpStatus.CONFLICT, EMAIL_IN_USE);
+        }
+    }
+
+    private void audit(User user) {
+        auditLog.record(AuditEventType.USER_CREATED, user.getId(), user.getEmail());
+    }
+
+    private static List<ImportRow> pending(List<ImportRow> chunk) {
+        return chunk.stream()
+                .filter(row -> row.result == null)
+                .toList();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the password hashing pool", e);
+        }
+    }
+
+    private static final class ImportRow {
+
+        private final long line;
+        private UserCreateRequest request;
+        private UserImportResult result;
+        private User user;
+
+        private ImportRow(long line) {
+            this.line = line;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.github.kisilko.eagle_bank.user;
+
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.Set;
+
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+interface UserMapper {
+
+    @Mapping(target = "id", ignore = true)
+    @Mapping(target = "name", source = "userCreateRequest.name")
+    @Mapping(target = "email", source = "userCreateRequest.email")
+    @Mapping(target = "password", source = "encodedPassword")
+    @Mapping(target = "roles", source = "roles")
+    @Mapping(target = "version", ignore = true)
+    User toUser(UserCreateRequest userCreateRequest, String encodedPassword, Set<Role> roles);
+}
@@ -1,23 +1,30 @@
 package com.github.kisilko.eagle_bank.user;
 
+import com.github.kisilko.eagle_bank.hateoas.LinkTemplate;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
 import org.springframework.hateoas.server.RepresentationModelAssembler;
 import org.springframework.stereotype.Component;
 
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
-
 @Component
 class UserModelAssembler implements RepresentationModelAssembler<User, EntityModel<User>> {
 
+    private static final LinkRelation UPDATE = LinkRelation.of("update");
+    private static final LinkRelation DELETE = LinkRelation.of("delete");
+
+    private final LinkTemplate selfLink = LinkTemplate.of(UserController.class, "userDetails");
+    private final LinkTemplate updateLink = LinkTemplate.of(UserController.class, "updateUserDetails");
+    private final LinkTemplate deleteLink = LinkTemplate.of(UserController.class, "deleteUser");
+
     @Override
     public EntityModel<User> toModel(User user) {
-        var controller = UserController.class;
-
-        var selfLink = linkTo(methodOn(controller).userDetails(user.getId())).withSelfRel();
-        var updateLink = linkTo(methodOn(controller).updateUserDetails(user.getId(), null)).withRel("update");
-        var deleteLink = linkTo(methodOn(controller).deleteUser(user.getId())).withRel("delete");
+        String baseUri = LinkTemplate.currentBaseUri();
 
-        return EntityModel.of(user, selfLink, updateLink, deleteLink);
+        return EntityModel.of(user,
+                Link.of(selfLink.expand(baseUri, user.getId()), IanaLinkRelations.SELF),
+                Link.of(updateLink.expand(baseUri, user.getId()), UPDATE),
+                Link.of(deleteLink.expand(baseUri, user.getId()), DELETE));
     }
 }
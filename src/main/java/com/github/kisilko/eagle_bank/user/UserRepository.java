@@ -1,10 +1,50 @@
 package com.github.kisilko.eagle_bank.user;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 interface UserRepository extends JpaRepository<User, Long> {
 
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = User.EMAIL_QUERY_CACHE_REGION)
+    })
     Optional<User> findByEmail(String email);
+
+    boolean existsByEmail(String email);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.email from User u")
+    Stream<String> streamAllEmails();
+
+    @Query("select u.email from User u where u.email in :emails")
+    List<String> findExistingEmails(Collection<String> emails);
+
+    @Query("select u.version from User u where u.id = :id")
+    Optional<Long> findVersionById(Long id);
+
+    @Modifying
+    @Query("update User u set u.name = :name, u.version = u.version + 1 where u.id = :id")
+    int updateName(Long id, String name);
+
+    @Modifying
+    @Query("update User u set u.name = :name, u.version = u.version + 1 where u.id = :id and u.version in :versions")
+    int updateName(Long id, String name, Collection<Long> versions);
+
+    @Modifying
+    @Query("delete from User u where u.id = :id")
+    int deleteUserById(Long id);
+
+    @Modifying
+    @Query("update User u set u.password = :newPassword where u.id = :id and u.password = :currentPassword")
+    int updatePassword(Long id, String currentPassword, String newPassword);
 }
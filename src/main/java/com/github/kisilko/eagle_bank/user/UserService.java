@@ -1,63 +1,138 @@
 package com.github.kisilko.eagle_bank.user;
 
+import com.github.kisilko.eagle_bank.audit.AuditEventType;
+import com.github.kisilko.eagle_bank.audit.AuditLog;
+import com.github.kisilko.eagle_bank.security.PasswordHashingService;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.access.prepost.PostAuthorize;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.Collection;
 import java.util.Optional;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class UserService {
 
-    private static final List<String> USER_DEFAULT_ROLES = List.of("USER");
+    static final Set<Role> USER_DEFAULT_ROLES = Set.of(Role.USER);
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final UserEmailFilter userEmailFilter;
+    private final UserMapper userMapper;
+    private final PasswordHashingService passwordHashingService;
+    private final AuditLog auditLog;
 
+    /**
+     * Rejects taken emails before the password is hashed; the filter answers most of them without a query.
+     */
     public User createUser(UserCreateRequest userCreateRequest) {
-        String hashedPassword = passwordEncoder.encode(userCreateRequest.password());
-        User newUser = User.builder()
-                .name(userCreateRequest.name())
-                .email(userCreateRequest.email())
-                .password(hashedPassword)
-                .roles(USER_DEFAULT_ROLES)
-                .build();
-        return userRepository.save(newUser);
+        if (userEmailFilter.mightBeTaken(userCreateRequest.email())) {
+            boolean taken = userRepository.existsByEmail(userCreateRequest.email());
+            userEmailFilter.recordLookup(taken);
+            if (taken) {
+                throw new UserAlreadyExistsException();
+            }
+        }
+
+        String hashedPassword = passwordHashingService.encode(userCreateRequest.password()).join();
+        User newUser = userMapper.toUser(userCreateRequest, hashedPassword, USER_DEFAULT_ROLES);
+        User savedUser;
+        try {
+            savedUser = userRepository.save(newUser);
+        } catch (DataIntegrityViolationException e) {
+            // the email was taken after the check
+            throw new UserAlreadyExistsException();
+        }
+        userEmailFilter.add(savedUser.getEmail());
+        userCache.put(savedUser);
+        auditLog.record(AuditEventType.USER_CREATED, savedUser.getId(), savedUser.getEmail());
+        return savedUser;
     }
 
-    @PreAuthorize("principal.getId().equals(#userId)")
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long userId) {
-        return userRepository.findById(userId);
+        User cachedUser = userCache.getById(userId);
+        if (cachedUser != null) {
+            return Optional.of(cachedUser);
+        }
+
+        long stamp = userCache.stamp();
+        Optional<User> user = userRepository.findById(userId);
+        user.ifPresent(found -> userCache.put(found, stamp));
+        return user;
+    }
+
+    /**
+     * Version of the user for conditional requests, taken from the cache or read without loading the user.
+     */
+    @Transactional(readOnly = true)
+    public Optional<Long> findVersionById(Long userId) {
+        User cachedUser = userCache.getById(userId);
+        if (cachedUser != null) {
+            return Optional.ofNullable(cachedUser.getVersion());
+        }
+        return userRepository.findVersionById(userId);
     }
 
-    @PreAuthorize("principal.getId().equals(#userId)")
-    public User updateUser(Long userId, UserUpdateRequest userUpdateRequest) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new UserNotFoundException(userId));
+    /**
+     * @param expectedVersions the update only applies if the user has one of these versions; {@code null} for any
+     */
+    @Transactional
+    public User updateUser(User user, UserUpdateRequest userUpdateRequest, Collection<Long> expectedVersions) {
+        int updated;
+        if (expectedVersions == null) {
+            updated = userRepository.updateName(user.getId(), userUpdateRequest.name());
+        } else {
+            updated = expectedVersions.isEmpty() ? 0 : userRepository.updateName(user.getId(), userUpdateRequest.name(), expectedVersions);
+        }
+        if (updated == 0) {
+            if (expectedVersions != null && userRepository.existsById(user.getId())) {
+                throw new UserVersionMismatchException(user.getId());
+            }
+            throw new UserNotFoundException(user.getId());
+        }
+        userCache.invalidateAfterCommit(user);
+        auditLog.record(AuditEventType.USER_UPDATED, user.getId(), null);
 
-        user.setName(userUpdateRequest.name());
+        return user.toBuilder()
+                .name(userUpdateRequest.name())
+                .version(userRepository.findVersionById(user.getId()).orElseThrow(() -> new UserNotFoundException(user.getId())))
+                .build();
+    }
 
-        return userRepository.save(user);
+    @Transactional
+    public void deleteUser(User user) {
+        if (userRepository.deleteUserById(user.getId()) > 0) {
+            userEmailFilter.remove(user.getEmail());
+        }
+        userCache.invalidateAfterCommit(user);
+        auditLog.record(AuditEventType.USER_DELETED, user.getId(), user.getEmail());
     }
 
-    @PreAuthorize("principal.getId().equals(#userId)")
-    public void deleteUser(Long userId) {
-        userRepository.deleteById(userId);
+    @Transactional
+    public void upgradePassword(User user, String upgradedPassword) {
+        userRepository.updatePassword(user.getId(), user.getPassword(), upgradedPassword);
+        userCache.invalidateAfterCommit(user);
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
-        return userRepository.findByEmail(email);
+        User cachedUser = userCache.getByEmail(email);
+        if (cachedUser != null) {
+            return Optional.of(cachedUser);
+        }
+
+        long stamp = userCache.stamp();
+        Optional<User> user = userRepository.findByEmail(email);
+        user.ifPresent(found -> userCache.put(found, stamp));
+        return user;
     }
 
+    @Transactional(readOnly = true)
     public boolean existsById(Long userId) {
         return userRepository.existsById(userId);
     }
-
-    public boolean notExistsById(Long userId) {
-        return !existsById(userId);
-    }
 }
@@ -0,0 +1,8 @@
+package com.github.kisilko.eagle_bank.user;
+
+class UserVersionMismatchException extends RuntimeException {
+
+    UserVersionMismatchException(Long userId) {
+        super("User %s has been modified".formatted(userId));
+    }
+}
@@ -0,0 +1,22 @@
+-- Account tables of a shard, matching the BankAccount and Transaction entities
+create table if not exists accounts (
+    id bigint not null primary key,
+    user_id bigint,
+    account_type varchar(255),
+    currency varchar(255),
+    balance numeric(19, 2) not null,
+    version bigint
+);
+create index if not exists idx_accounts_user_id_id on accounts (user_id, id);
+
+create table if not exists transactions (
+    id bigint not null primary key,
+    account_id bigint not null,
+    counterparty_account_id bigint,
+    type varchar(32) not null,
+    amount numeric(19, 2) not null,
+    balance_after numeric(19, 2) not null,
+    created_at timestamp(6) with time zone not null
+);
+create index if not exists idx_transactions_account_id_id on transactions (account_id, id);
+create index if not exists idx_transactions_account_id_created_at on transactions (account_id, created_at);
@@ -0,0 +1,46 @@
+package com.github.kisilko.eagle_bank.account;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.mapstruct.factory.Mappers;
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BankAccountMapperTests {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BankAccountMapper bankAccountMapper = Mappers.getMapper(BankAccountMapper.class);
+    private final ModelMapper modelMapper = new ModelMapper();
+
+    BankAccountMapperTests() {
+        modelMapper.getConfiguration()
+                .setMatchingStrategy(MatchingStrategies.STRICT);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            """
+            {"userId": 42, "accountType": "SAVINGS", "currency": "USD"}""",
+            """
+            {"userId": 7, "accountType": "CURRENT", "currency": "EUR"}""",
+            """
+            {"userId": 1}""",
+            "{}"
+    })
+    void itMapsCreateRequestLikeModelMapper(String requestJson) throws JsonProcessingException {
+        BankAccountCreateRequest request = objectMapper.readValue(requestJson, BankAccountCreateRequest.class);
+
+        BankAccount generated = bankAccountMapper.toBankAccount(request);
+        BankAccount reference = modelMapper.map(request, BankAccount.class);
+
+        assertThat(generated.getId()).isNull();
+        assertThat(generated.getUserId()).isEqualTo(reference.getUserId()).isEqualTo(request.getUserId());
+        assertThat(generated.getAccountType()).isEqualTo(reference.getAccountType()).isEqualTo(request.getAccountType());
+        assertThat(generated.getCurrency()).isEqualTo(reference.getCurrency()).isEqualTo(request.getCurrency());
+        assertThat(generated).usingRecursiveComparison().isEqualTo(reference);
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.kisilko.eagle_bank.account;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.hateoas.CollectionModel;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriComponents;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+class BankAccountModelAssemblerTests {
+
+    private final BankAccountModelAssembler assembler = new BankAccountModelAssembler();
+
+    @BeforeEach
+    void bindRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/accounts");
+        request.setScheme("https");
+        request.setServerName("bank.example.com");
+        request.setServerPort(8443);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    @AfterEach
+    void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void itLinksAnAccountLikeLinkTo() {
+        EntityModel<BankAccount> model = assembler.toModel(BankAccount.builder().id(4_200_000_017L).build());
+
+        assertThat(model.getRequiredLink(IanaLinkRelations.SELF).getHref()).isEqualTo(
+                linkTo(methodOn(BankAccountController.class).accountDetails(4_200_000_017L, null)).withSelfRel().getHref());
+    }
+
+    @Test
+    void itLinksAPageLikeLinkTo() {
+        List<BankAccount> accounts = List.of(BankAccount.builder().id(11L).build(), BankAccount.builder().id(12L).build());
+
+        CollectionModel<EntityModel<BankAccount>> firstPage = assembler.toPageModel(new BankAccountPage(7L, null, accounts, true, 2));
+        CollectionModel<EntityModel<BankAccount>> nextPage = assembler.toPageModel(new BankAccountPage(7L, 12L, List.of(), false, 2));
+
+        assertSameUri(firstPage.getRequiredLink(IanaLinkRelations.SELF),
+                linkTo(methodOn(BankAccountController.class).listAccounts(7L, null, 2)).withSelfRel());
+        assertSameUri(firstPage.getRequiredLink(IanaLinkRelations.NEXT),
+                linkTo(methodOn(BankAccountController.class).listAccounts(7L, 12L, 2)).withRel(IanaLinkRelations.NEXT));
+        assertSameUri(nextPage.getRequiredLink(IanaLinkRelations.SELF),
+                linkTo(methodOn(BankAccountController.class).listAccounts(7L, 12L, 2)).withSelfRel());
+        assertThat(nextPage.getLink(IanaLinkRelations.NEXT)).isEmpty();
+    }
+
+    /**
+     * The query parameters may come in another order, and {@code linkTo} leaves the ones passed as null as
+     * optional template variables.
+     */
+    private static void assertSameUri(Link actual, Link expected) {
+        UriComponents actualUri = UriComponentsBuilder.fromUriString(actual.getHref()).build();
+        UriComponents expectedUri = UriComponentsBuilder.fromUriString(expected.expand().getHref()).build();
+
+        assertThat(actual.getRel()).isEqualTo(expected.getRel());
+        assertThat(actualUri.getScheme() + "://" + actualUri.getHost() + ":" + actualUri.getPort() + actualUri.getPath())
+                .isEqualTo(expectedUri.getScheme() + "://" + expectedUri.getHost() + ":" + expectedUri.getPort() + expectedUri.getPath());
+        assertThat(actualUri.getQueryParams()).isEqualTo(expectedUri.getQueryParams());
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.kisilko.eagle_bank.audit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTests {
+
+    private static final int SEGMENT_SIZE = 4096;
+    private static final int PRODUCERS = 8;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void itReadsBackWhatWasWrittenAcrossRotatedSegments() throws IOException {
+        List<AuditEvent> written = write(100);
+
+        List<AuditEvent> read = new ArrayList<>();
+        List<Path> segments = AuditLogReader.segments(directory);
+        for (Path segment : segments) {
+            AuditLogReader.SegmentSummary summary = AuditLogReader.readSegment(segment, read::add);
+            assertThat(summary.sealed()).isTrue();
+            assertThat(summary.error()).isNull();
+        }
+
+        assertThat(segments).hasSizeGreaterThan(1);
+        assertThat(read).isEqualTo(written);
+    }
+
+    @Test
+    void itDetectsACorruptRecord() throws IOException {
+        write(10);
+        Path segment = AuditLogReader.segments(directory).getFirst();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // flip a byte in the timestamp of the second record
+            int secondRecord = AuditRecordCodec.HEADER_SIZE + recordSize(0);
+            channel.write(ByteBuffer.wrap(new byte[]{0x7f}), secondRecord + AuditRecordCodec.RECORD_PREFIX_SIZE + 3);
+        }
+
+        List<AuditEvent> read = new ArrayList<>();
+        AuditLogReader.SegmentSummary summary = AuditLogReader.readSegment(segment, read::add);
+
+        assertThat(summary.error()).startsWith("checksum mismatch");
+        assertThat(read).hasSize(1);
+    }
+
+    @Test
+    void itReadsAnUnsealedSegmentUpToTheLastRecord() throws IOException {
+        AuditSegmentWriter writer = new AuditSegmentWriter(directory, SEGMENT_SIZE);
+        writer.append(event(0));
+        writer.append(event(1));
+        writer.force();
+
+        List<AuditEvent> read = new ArrayList<>();
+        AuditLogReader.SegmentSummary summary = AuditLogReader.readSegment(AuditLogReader.segments(directory).getFirst(), read::add);
+
+        assertThat(summary.sealed()).isFalse();
+        assertThat(summary.error()).isNull();
+        assertThat(read).containsExactly(event(0), event(1));
+    }
+
+    @Test
+    void itWritesEveryEventFromConcurrentProducersOnce() throws Exception {
+        AuditLog auditLog = new AuditLog(directory, 1, 64, 32, 1, 10_000);
+
+        recordConcurrently(auditLog, 2_000);
+        auditLog.shutdown();
+
+        assertThat(readSubjectIds()).hasSize(PRODUCERS * 2_000)
+                .doesNotHaveDuplicates()
+                .allMatch(subjectId -> subjectId % 10_000 < 2_000);
+    }
+
+    @Test
+    void itCountsWhatItDropsWhenTheBufferStaysFull() throws Exception {
+        // no waiting for room and only two slots, so producers outrun the writer
+        AuditLog auditLog = new AuditLog(directory, 1, 2, 32, 1, 0);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        auditLog.bindTo(registry);
+
+        recordConcurrently(auditLog, 5_000);
+        auditLog.shutdown();
+
+        double written = registry.get("audit.events.written").functionCounter().count();
+        double dropped = registry.get("audit.events.dropped").functionCounter().count();
+        List<Long> subjectIds = readSubjectIds();
+        assertThat(written + dropped).isEqualTo(PRODUCERS * 5_000);
+        assertThat(subjectIds).hasSize((int) written).doesNotHaveDuplicates();
+        assertThat(registry.get("audit.events.buffered").gauge().value()).isZero();
+    }
+
+    /**
+     * Records {@code perProducer} events from each producer, with subject ids telling producer and sequence apart.
+     */
+    private static void recordConcurrently(AuditLog auditLog, int perProducer) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        try (ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS)) {
+            List<Future<?>> done = new ArrayList<>();
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                long base = producer * 10_000L;
+                done.add(producers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        auditLog.record(AuditEventType.LOGIN_SUCCEEDED, base + i, null);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> producer : done) {
+                producer.get();
+            }
+        }
+    }
+
+    private List<Long> readSubjectIds() throws IOException {
+        List<Long> subjectIds = new ArrayList<>();
+        for (Path segment : AuditLogReader.segments(directory)) {
+            AuditLogReader.SegmentSummary summary = AuditLogReader.readSegment(segment, event -> subjectIds.add(event.subjectId()));
+            assertThat(summary.sealed()).isTrue();
+            assertThat(summary.error()).isNull();
+        }
+        return subjectIds;
+    }
+
+    private List<AuditEvent> write(int count) throws IOException {
+        List<AuditEvent> events = new ArrayList<>();
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(directory, SEGMENT_SIZE)) {
+            for (int i = 0; i < count; i++) {
+                events.add(event(i));
+                writer.append(events.getLast());
+            }
+        }
+        return events;
+    }
+
+    private static int recordSize(int i) {
+        ByteBuffer buffer = AuditRecordCodec.newRecordBuffer();
+        AuditRecordCodec.encode(event(i), buffer);
+        return buffer.remaining();
+    }
+
+    private static AuditEvent event(int i) {
+        return new AuditEvent(1_700_000_000_000L + i, AuditEventType.values()[i % AuditEventType.values().length],
+                "user" + i + "@example.com", i, i % 2 == 0 ? null : "détail " + i);
+    }
+}
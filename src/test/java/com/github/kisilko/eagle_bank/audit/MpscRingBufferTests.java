@@ -0,0 +1,140 @@
+package com.github.kisilko.eagle_bank.audit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MpscRingBufferTests {
+
+    private static final int PRODUCERS = 8;
+
+    @Test
+    void itRoundsTheCapacityUpToAPowerOfTwo() {
+        assertThat(new MpscRingBuffer<>(5).capacity()).isEqualTo(8);
+        assertThat(new MpscRingBuffer<>(8).capacity()).isEqualTo(8);
+        assertThat(new MpscRingBuffer<>(2).capacity()).isEqualTo(2);
+        assertThat(new MpscRingBuffer<>(1).capacity()).isEqualTo(2);
+    }
+
+    @Test
+    void itRejectsOffersWhileFull() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+
+        assertThat(buffer.offer(4)).isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        List<Integer> drained = new ArrayList<>();
+        assertThat(buffer.drain(drained::add, 1)).isEqualTo(1);
+        assertThat(buffer.offer(5)).isTrue();
+        assertThat(buffer.offer(6)).isFalse();
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertThat(drained).containsExactly(0, 1, 2, 3, 5);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void itDrainsNoMoreThanAskedInOfferOrderAcrossWraparounds() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(4);
+        List<Integer> drained = new ArrayList<>();
+
+        for (int round = 0; round < 100; round++) {
+            for (int i = 0; i < 3; i++) {
+                buffer.offer(round * 3 + i);
+            }
+            assertThat(buffer.drain(drained::add, 2)).isEqualTo(2);
+            assertThat(buffer.drain(drained::add, 2)).isEqualTo(1);
+            assertThat(buffer.drain(drained::add, 2)).isZero();
+        }
+
+        assertThat(drained).hasSize(300).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void itNeitherLosesNorDuplicatesElementsFromConcurrentProducers() throws Exception {
+        int perProducer = 100_000;
+        MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(1024);
+        CountDownLatch start = new CountDownLatch(1);
+        int[] next = new int[PRODUCERS];
+        int received = 0;
+
+        try (ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS)) {
+            List<Future<?>> done = new ArrayList<>();
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                long id = producer;
+                done.add(producers.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perProducer; i++) {
+                        while (!buffer.offer(id << 32 | i)) {
+                            Thread.onSpinWait();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (received < PRODUCERS * perProducer && System.nanoTime() < deadline) {
+                received += buffer.drain(element -> {
+                    int producer = (int) (element >>> 32);
+                    // each producer's elements must come out once each and in the order it offered them
+                    assertThat((int) (long) element).isEqualTo(next[producer]);
+                    next[producer]++;
+                }, 256);
+            }
+            for (Future<?> producer : done) {
+                producer.get();
+            }
+        }
+
+        assertThat(received).isEqualTo(PRODUCERS * perProducer);
+        assertThat(next).containsOnly(perProducer);
+        assertThat(buffer.size()).isZero();
+    }
+
+    @Test
+    void itAcceptsExactlyItsCapacityFromConcurrentProducersWhenNobodyDrains() throws Exception {
+        MpscRingBuffer<Long> buffer = new MpscRingBuffer<>(64);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Long> accepted = new ArrayList<>();
+
+        try (ExecutorService producers = Executors.newFixedThreadPool(PRODUCERS)) {
+            List<Future<List<Long>>> results = new ArrayList<>();
+            for (int producer = 0; producer < PRODUCERS; producer++) {
+                long id = producer;
+                results.add(producers.submit(() -> {
+                    start.await();
+                    List<Long> offered = new ArrayList<>();
+                    for (int i = 0; i < 1_000; i++) {
+                        if (buffer.offer(id << 32 | i)) {
+                            offered.add(id << 32 | i);
+                        }
+                    }
+                    return offered;
+                }));
+            }
+            start.countDown();
+            for (Future<List<Long>> result : results) {
+                accepted.addAll(result.get());
+            }
+        }
+
+        List<Long> drained = new ArrayList<>();
+        buffer.drain(drained::add, Integer.MAX_VALUE);
+
+        assertThat(accepted).hasSize(64);
+        assertThat(drained).containsExactlyInAnyOrderElementsOf(accepted);
+    }
+}
@@ -0,0 +1,101 @@
+package com.github.kisilko.eagle_bank.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BoundedCacheTests {
+
+    @Test
+    void itEvictsAnEntryOnceFull() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3);
+
+        for (int i = 0; i < 4; i++) {
+            cache.put("key-" + i, i);
+        }
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.stats().evictions()).isEqualTo(1);
+    }
+
+    @Test
+    void itEvictsTheLeastRecentlyUsedEntry() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3);
+        cache.put("a", 1);
+        Thread.sleep(2); // access times have millisecond precision
+        cache.put("b", 2);
+        Thread.sleep(2);
+        cache.put("c", 3);
+        Thread.sleep(2);
+        cache.get("a");
+
+        cache.put("d", 4);
+
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("c")).isEqualTo(3);
+        assertThat(cache.get("d")).isEqualTo(4);
+    }
+
+    @Test
+    void itEvictsAnExpiredEntryBeforeTheLeastRecentlyUsedOne() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(3);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        Thread.sleep(2);
+        cache.put("short-lived", 3, System.currentTimeMillis() + 20);
+        Thread.sleep(30);
+
+        cache.put("d", 4);
+
+        assertThat(cache.size()).isEqualTo(3);
+        assertThat(cache.get("a")).isEqualTo(1);
+        assertThat(cache.get("b")).isEqualTo(2);
+        assertThat(cache.get("short-lived")).isNull();
+    }
+
+    @Test
+    void itExpiresEntries() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        cache.put("a", 1, System.currentTimeMillis() + 50);
+        assertThat(cache.get("a")).isEqualTo(1);
+
+        Thread.sleep(60);
+
+        assertThat(cache.get("a")).isNull();
+        assertThat(cache.size()).isZero();
+        assertThat(cache.stats()).isEqualTo(new CacheStats(1, 1, 1, 0));
+    }
+
+    @Test
+    void itDoesNotStoreEntriesThatAlreadyExpired() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+
+        cache.put("a", 1, System.currentTimeMillis());
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void itStoresNothingWithAMaximumSizeOfZero() {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(0);
+
+        cache.put("a", 1);
+
+        assertThat(cache.get("a")).isNull();
+    }
+
+    @Test
+    void itKeepsTheLiveEntryOnPutIfAbsent() throws InterruptedException {
+        BoundedCache<String, Integer> cache = new BoundedCache<>(10);
+        long later = System.currentTimeMillis() + 60_000;
+
+        assertThat(cache.putIfAbsent("a", 1, later)).isNull();
+        assertThat(cache.putIfAbsent("a", 2, later)).isEqualTo(1);
+
+        cache.put("b", 1, System.currentTimeMillis() + 20);
+        Thread.sleep(30);
+        assertThat(cache.putIfAbsent("b", 2, later)).isNull();
+        assertThat(cache.get("b")).isEqualTo(2);
+    }
+}
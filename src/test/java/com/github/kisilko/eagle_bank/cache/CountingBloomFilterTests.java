@@ -0,0 +1,47 @@
+package com.github.kisilko.eagle_bank.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountingBloomFilterTests {
+
+    private static final int ENTRIES = 10_000;
+
+    @Test
+    void itHasNoFalseNegatives() {
+        CountingBloomFilter filter = new CountingBloomFilter(ENTRIES, 0.01);
+        IntStream.range(0, ENTRIES).forEach(i -> filter.add(email(i)));
+
+        assertThat(IntStream.range(0, ENTRIES).allMatch(i -> filter.mightContain(email(i)))).isTrue();
+        assertThat(filter.entries()).isEqualTo(ENTRIES);
+    }
+
+    @Test
+    void itKeepsFalsePositivesNearTheConfiguredRate() {
+        CountingBloomFilter filter = new CountingBloomFilter(ENTRIES, 0.01);
+        IntStream.range(0, ENTRIES).forEach(i -> filter.add(email(i)));
+
+        long falsePositives = IntStream.range(ENTRIES, 2 * ENTRIES).filter(i -> filter.mightContain(email(i))).count();
+
+        assertThat(falsePositives).isLessThan(ENTRIES / 50);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.02);
+    }
+
+    @Test
+    void itForgetsRemovedValuesWithoutLosingTheOthers() {
+        CountingBloomFilter filter = new CountingBloomFilter(ENTRIES, 0.01);
+        IntStream.range(0, ENTRIES).forEach(i -> filter.add(email(i)));
+
+        IntStream.range(0, ENTRIES / 2).forEach(i -> filter.remove(email(i)));
+
+        assertThat(IntStream.range(ENTRIES / 2, ENTRIES).allMatch(i -> filter.mightContain(email(i)))).isTrue();
+        assertThat(IntStream.range(0, ENTRIES / 2).filter(i -> filter.mightContain(email(i))).count()).isLessThan(ENTRIES / 50);
+    }
+
+    private static String email(int i) {
+        return "user" + i + "@example.com";
+    }
+}
@@ -0,0 +1,43 @@
+package com.github.kisilko.eagle_bank.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BCryptStrengthCalibratorTests {
+
+    @Test
+    void itPicksTheMaximumStrengthWhenEveryStrengthIsFastEnough() {
+        BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(Duration.ofMinutes(1), 4, 6);
+
+        assertThat(calibrator.calibrate()).isEqualTo(6);
+    }
+
+    @Test
+    void itKeepsTheMinimumStrengthWhenEvenThatIsTooSlow() {
+        BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(Duration.ofNanos(1), 4, 6);
+
+        assertThat(calibrator.calibrate()).isEqualTo(4);
+    }
+
+    @Test
+    void itStopsBeforeTheFirstStrengthOverTheTarget() {
+        // strength 4 hashes in well under a millisecond, 14 takes 1024 times as long
+        BCryptStrengthCalibrator calibrator = new BCryptStrengthCalibrator(Duration.ofMillis(20), 4, 14);
+
+        assertThat(calibrator.calibrate()).isBetween(5, 13);
+    }
+
+    @Test
+    void itRejectsStrengthsBCryptDoesNotSupport() {
+        assertThatThrownBy(() -> new BCryptStrengthCalibrator(Duration.ofMillis(250), 3, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BCryptStrengthCalibrator(Duration.ofMillis(250), 10, 32))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new BCryptStrengthCalibrator(Duration.ofMillis(250), 12, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
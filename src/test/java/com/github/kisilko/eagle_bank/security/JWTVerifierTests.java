@@ -0,0 +1,44 @@
+package com.github.kisilko.eagle_bank.security;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.Authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JWTVerifierTests {
+
+    private static final String SECRET = "h3Qbjyj5kPvN6Pdkggib5fxC2sKWIP5t";
+
+    private final JWTVerifier jwtVerifier = new JWTVerifier(SECRET, 100);
+
+    @Test
+    void itServesARepeatedTokenFromTheCache() {
+        String token = new JWTService(SECRET, 60_000).generateToken(42L, "alice@example.com", 1);
+
+        Authentication first = jwtVerifier.verify(token);
+
+        assertThat(((UserPrincipal) first.getPrincipal()).getId()).isEqualTo(42L);
+        assertThat(jwtVerifier.verify(token)).isSameAs(first);
+    }
+
+    @Test
+    void itDoesNotServeATokenFromTheCacheAfterItExpired() throws InterruptedException {
+        // the expiry is kept in whole seconds, so it is between one and two seconds away
+        String token = new JWTService(SECRET, 2_000).generateToken(42L, "alice@example.com", 1);
+        jwtVerifier.verify(token);
+
+        Thread.sleep(2_100);
+
+        assertThatThrownBy(() -> jwtVerifier.verify(token)).isInstanceOf(ExpiredJwtException.class);
+    }
+
+    @Test
+    void itRejectsTokensSignedWithAnotherKey() {
+        String token = new JWTService("another-secret-of-at-least-32-bytes", 60_000).generateToken(42L, "alice@example.com", 1);
+
+        assertThatThrownBy(() -> jwtVerifier.verify(token)).isInstanceOf(SignatureException.class);
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConsistentHashRingTests {
+
+    private static final int USERS = 100_000;
+
+    @Test
+    void itSpreadsKeysEvenlyOverTheNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c", "d"), 256);
+
+        Map<String, Long> keysByNode = LongStream.rangeClosed(1, USERS)
+                .mapToObj(ring::nodeFor)
+                .collect(Collectors.groupingBy(Function.identity(), Collectors.counting()));
+
+        assertThat(keysByNode).containsOnlyKeys("a", "b", "c", "d");
+        assertThat(keysByNode.values()).allSatisfy(keys -> assertThat(keys).isBetween(USERS / 4 * 8 / 10L, USERS / 4 * 12 / 10L));
+    }
+
+    @Test
+    void itOnlyMovesKeysToAnAddedNode() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 256);
+        ConsistentHashRing grown = new ConsistentHashRing(List.of("a", "b", "c", "d"), 256);
+
+        List<Long> moved = LongStream.rangeClosed(1, USERS)
+                .filter(user -> !ring.nodeFor(user).equals(grown.nodeFor(user)))
+                .boxed()
+                .toList();
+
+        assertThat(moved).allSatisfy(user -> assertThat(grown.nodeFor(user)).isEqualTo("d"));
+        assertThat(moved).hasSizeBetween(USERS / 4 * 8 / 10, USERS / 4 * 12 / 10);
+    }
+
+    @Test
+    void itDoesNotDependOnTheOrderOfTheNodes() {
+        ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 256);
+        ConsistentHashRing reordered = new ConsistentHashRing(List.of("c", "a", "b"), 256);
+
+        assertThat(LongStream.rangeClosed(1, USERS).allMatch(user -> ring.nodeFor(user).equals(reordered.nodeFor(user)))).isTrue();
+    }
+}
@@ -0,0 +1,98 @@
+package com.github.kisilko.eagle_bank.sharding;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SnowflakeIdGeneratorTests {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void itGeneratesIncreasingIdsThatFitInAJsonNumber() {
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0);
+
+        long previous = 0;
+        for (int i = 0; i < 100_000; i++) {
+            long id = generator.nextId();
+            assertThat(id).isGreaterThan(previous).isLessThan(1L << 53);
+            previous = id;
+        }
+    }
+
+    @Test
+    void itGeneratesUniqueIdsAcrossThreadsAndNodes() {
+        SnowflakeIdGenerator first = new SnowflakeIdGenerator(1);
+        SnowflakeIdGenerator second = new SnowflakeIdGenerator(2);
+        Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 200_000).parallel().forEach(i -> {
+            ids.add(first.nextId());
+            ids.add(second.nextId());
+        });
+
+        assertThat(ids).hasSize(400_000);
+    }
+
+    @Test
+    void itRejectsNodeIdsThatDoNotFit() {
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void itDoesNotRepeatIdsAfterARestart() {
+        IdHighWaterMark highWaterMark = new IdHighWaterMark(directory.resolve("node-0"));
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, highWaterMark, 100, 10_000);
+        long last = 0;
+        // more ids than the clock allows, so the generator runs ahead of it
+        for (int i = 0; i < 200_000; i++) {
+            last = generator.nextId();
+        }
+
+        SnowflakeIdGenerator restarted = new SnowflakeIdGenerator(0, highWaterMark, 100, 10_000);
+
+        assertThat(restarted.nextId()).isGreaterThan(last);
+    }
+
+    @Test
+    void itWritesTheHighWaterMarkBeforeHandingOutIds() {
+        IdHighWaterMark highWaterMark = new IdHighWaterMark(directory.resolve("node-0"));
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, highWaterMark, 100, 10_000);
+
+        for (int i = 0; i < 100_000; i++) {
+            long millis = generator.nextId() >>> (SnowflakeIdGenerator.NODE_BITS + SnowflakeIdGenerator.SEQUENCE_BITS);
+            assertThat(highWaterMark.read()).isGreaterThanOrEqualTo(millis);
+        }
+    }
+
+    @Test
+    void itWaitsForTheClockToPassTheHighWaterMark() {
+        IdHighWaterMark highWaterMark = new IdHighWaterMark(directory.resolve("node-0"));
+        long mark = System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH_MILLIS + 200;
+        highWaterMark.write(mark);
+
+        SnowflakeIdGenerator generator = new SnowflakeIdGenerator(0, highWaterMark, 100, 10_000);
+
+        assertThat(System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH_MILLIS).isGreaterThan(mark);
+        assertThat(generator.nextId() >>> (SnowflakeIdGenerator.NODE_BITS + SnowflakeIdGenerator.SEQUENCE_BITS)).isGreaterThan(mark);
+    }
+
+    @Test
+    void itRefusesToStartWhenTheClockIsFarBehindTheHighWaterMark() {
+        IdHighWaterMark highWaterMark = new IdHighWaterMark(directory.resolve("node-0"));
+        highWaterMark.write(System.currentTimeMillis() - SnowflakeIdGenerator.EPOCH_MILLIS + 60_000);
+
+        assertThatThrownBy(() -> new SnowflakeIdGenerator(0, highWaterMark, 100, 1_000))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining(SnowflakeIdGenerator.MAX_CLOCK_WAIT_SETTING);
+    }
+}
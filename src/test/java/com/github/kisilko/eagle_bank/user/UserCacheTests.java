@@ -0,0 +1,101 @@
+package com.github.kisilko.eagle_bank.user;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserCacheTests {
+
+    private final User user = User.builder()
+            .id(42L)
+            .name("Alice Johnson")
+            .email("alice.johnson@example.com")
+            .roles(Set.of(Role.USER))
+            .version(0L)
+            .build();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void itKeepsTheUserUntilTheTransactionCommits() {
+        UserCache userCache = new UserCache(100, 300);
+        userCache.put(user);
+        TransactionSynchronizationManager.initSynchronization();
+
+        userCache.invalidateAfterCommit(user);
+
+        assertThat(userCache.getById(user.getId())).isSameAs(user);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(userCache.getById(user.getId())).isNull();
+        assertThat(userCache.getByEmail(user.getEmail())).isNull();
+    }
+
+    @Test
+    void itKeepsTheUserWhenTheTransactionRollsBack() {
+        UserCache userCache = new UserCache(100, 300);
+        userCache.put(user);
+        TransactionSynchronizationManager.initSynchronization();
+
+        userCache.invalidateAfterCommit(user);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(userCache.getById(user.getId())).isSameAs(user);
+    }
+
+    @Test
+    void itInvalidatesRightAwayOutsideATransaction() {
+        UserCache userCache = new UserCache(100, 300);
+        userCache.put(user);
+
+        userCache.invalidateAfterCommit(user);
+
+        assertThat(userCache.getById(user.getId())).isNull();
+    }
+
+    @Test
+    void itDoesNotCacheAUserReadBeforeAnInvalidation() {
+        UserCache userCache = new UserCache(100, 300);
+        long stamp = userCache.stamp();
+
+        // the user was read, then the transaction that changed it committed, then the read result arrives
+        userCache.invalidateAfterCommit(user);
+        userCache.put(user, stamp);
+
+        assertThat(userCache.getById(user.getId())).isNull();
+        assertThat(userCache.getByEmail(user.getEmail())).isNull();
+    }
+
+    @Test
+    void itCachesAUserReadWithoutAnInvalidationSince() {
+        UserCache userCache = new UserCache(100, 300);
+        long stamp = userCache.stamp();
+
+        userCache.put(user, stamp);
+
+        assertThat(userCache.getById(user.getId())).isSameAs(user);
+        assertThat(userCache.getByEmail(user.getEmail())).isSameAs(user);
+    }
+
+    @Test
+    void itExpiresUsersAfterTheTtl() throws InterruptedException {
+        UserCache userCache = new UserCache(100, 1);
+        userCache.put(user);
+        assertThat(userCache.getById(user.getId())).isSameAs(user);
+
+        Thread.sleep(1_100);
+
+        assertThat(userCache.getById(user.getId())).isNull();
+        assertThat(userCache.getByEmail(user.getEmail())).isNull();
+    }
+}
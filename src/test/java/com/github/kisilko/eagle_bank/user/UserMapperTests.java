@@ -0,0 +1,34 @@
+package com.github.kisilko.eagle_bank.user;
+
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserMapperTests {
+
+    private final UserMapper userMapper = Mappers.getMapper(UserMapper.class);
+
+    @Test
+    void itMapsCreateRequestLikeTheBuilder() {
+        UserCreateRequest request = new UserCreateRequest("Alice Johnson", "alice.johnson@example.com", "secret_pass");
+        Set<Role> roles = Set.of(Role.USER);
+
+        User generated = userMapper.toUser(request, "{bcrypt}hash", roles);
+        User reference = User.builder()
+                .name(request.name())
+                .email(request.email())
+                .password("{bcrypt}hash")
+                .roles(roles)
+                .build();
+
+        assertThat(generated.getId()).isNull();
+        assertThat(generated.getName()).isEqualTo(reference.getName());
+        assertThat(generated.getEmail()).isEqualTo(reference.getEmail());
+        assertThat(generated.getPassword()).isEqualTo(reference.getPassword());
+        assertThat(generated.getRoles()).isEqualTo(reference.getRoles());
+        assertThat(generated).usingRecursiveComparison().isEqualTo(reference);
+    }
+}